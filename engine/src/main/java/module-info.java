@@ -39,6 +39,9 @@ module pro.verron.officestamper {
     opens pro.verron.officestamper.preset;
     exports pro.verron.officestamper.preset;
 
+    opens pro.verron.officestamper.core to pro.verron.officestamper.test;
+    exports pro.verron.officestamper.core to pro.verron.officestamper.test;
+
     opens pro.verron.officestamper.experimental to pro.verron.officestamper.test;
     exports pro.verron.officestamper.experimental to pro.verron.officestamper.test;
     exports pro.verron.officestamper.utils;
@@ -0,0 +1,50 @@
+package pro.verron.officestamper.api;
+
+import org.docx4j.openpackaging.packages.OpcPackage;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A template that has been loaded, preprocessed and analyzed once, and that can then be stamped many times.
+ * <p>
+ * Implementations are immutable: stamping a compiled template never alters it, so the same instance can be
+ * kept around and reused for every document produced from the same template.
+ *
+ * @param <T> The type of the template that can be stamped.
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public interface CompiledTemplate<T extends OpcPackage> {
+    /**
+     * Stamps a fresh copy of the compiled template with the context and writes the result to the outputStream.
+     *
+     * @param context      context to use for stamping
+     * @param outputStream output stream to write the result to
+     * @throws OfficeStamperException if the stamping fails
+     */
+    void stamp(
+            Object context,
+            OutputStream outputStream
+    ) throws OfficeStamperException;
+
+    /**
+     * Takes a snapshot of the counters of the cache of parsed expressions shared by the stamps of this template.
+     *
+     * @return the statistics, or an empty optional if the expressions of this template are not cached
+     */
+    default Optional<ExpressionCacheStatistics> expressionCacheStatistics() {
+        return Optional.empty();
+    }
+
+    /**
+     * Takes a snapshot of the counters of each cached expression of this template, showing which ones got compiled.
+     *
+     * @return the statistics of the cached expressions, empty if the expressions of this template are not cached
+     */
+    default List<ExpressionStatistics> expressionStatistics() {
+        return List.of();
+    }
+}
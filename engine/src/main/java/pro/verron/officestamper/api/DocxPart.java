@@ -14,4 +14,8 @@ public interface DocxPart
     List<Object> content();
     Stream<Paragraph> streamParagraphs();
     Stream<R> streamRun();
+
+    /// Signals that the content of the part changed, so that what the part found in it, like its paragraphs and
+    /// runs, is found again on next access.
+    default void invalidate() {}
 }
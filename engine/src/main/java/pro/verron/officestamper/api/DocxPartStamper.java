@@ -0,0 +1,27 @@
+package pro.verron.officestamper.api;
+
+/**
+ * This is an interface that defines the contract for stamping
+ * a part of a document in place, inside the document it belongs to.
+ * <p>
+ * Contrary to {@link OfficeStamper}, nothing is saved: the content of the part is modified directly, and every object
+ * created while stamping, like images, is added to the document of the part.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+@FunctionalInterface
+public interface DocxPartStamper {
+	/**
+	 * Stamps the content of the part with the context.
+	 *
+	 * @param part    part to stamp, possibly a detached subtree of a document part
+	 * @param context context to use for stamping
+	 * @throws OfficeStamperException if the stamping fails
+	 */
+	void stamp(
+			DocxPart part,
+			Object context
+	) throws OfficeStamperException;
+}
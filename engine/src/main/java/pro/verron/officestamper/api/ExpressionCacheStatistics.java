@@ -0,0 +1,15 @@
+package pro.verron.officestamper.api;
+
+/**
+ * A snapshot of the counters of the cache of parsed expressions shared by the stamps of a stamper.
+ *
+ * @param hits      number of lookups answered from the cache.
+ * @param misses    number of lookups that needed parsing.
+ * @param evictions number of expressions removed to respect the maximum size.
+ * @param size      number of expressions currently cached.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public record ExpressionCacheStatistics(long hits, long misses, long evictions, int size) {}
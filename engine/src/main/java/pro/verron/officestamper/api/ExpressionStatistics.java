@@ -0,0 +1,32 @@
+package pro.verron.officestamper.api;
+
+/**
+ * A snapshot of the counters of an expression cached by a stamper.
+ *
+ * @param expression  the expression text.
+ * @param evaluations number of successful evaluations.
+ * @param compilation the compilation state of the expression.
+ * @param fallbacks   number of times the compiled form failed and fell back to interpretation.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public record ExpressionStatistics(String expression, long evaluations, Compilation compilation, long fallbacks) {
+
+    /**
+     * The compilation state of a cached expression.
+     */
+    public enum Compilation {
+        /** The expression is interpreted, and was not yet considered for compilation. */
+        INTERPRETED,
+        /** A compilation of the expression is in progress. */
+        COMPILING,
+        /** The expression is evaluated from its compiled bytecode. */
+        COMPILED,
+        /** The expression could not be compiled, it stays interpreted. */
+        NOT_COMPILABLE,
+        /** The compiled expression failed during an evaluation, it has been reverted to interpretation. */
+        REVERTED
+    }
+}
@@ -7,6 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.Nullable;
 
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * The ObjectResolver interface provides a contract for resolving objects to create a run
  * with the resolved content. It includes methods to check if an object can be resolved
@@ -79,4 +82,20 @@ public interface ObjectResolver {
      */
     boolean canResolve(@Nullable Object object);
 
+    /**
+     * Declares the types of the non-null objects this resolver handles, allowing the registry to skip it for any other
+     * type without calling {@link #canResolve(Object)}.
+     * <p>
+     * A resolver declaring its types must resolve exactly the non-null instances of those types, an empty set meaning
+     * it resolves no non-null object at all. Null values are always checked with {@link #canResolve(Object)}.
+     * Resolvers that cannot describe themselves this way keep the default, and are asked with
+     * {@link #canResolve(Object)} every time, as are the ones whose {@link #canResolve(Object)} is overridden by a
+     * subclass that does not override this method too.
+     *
+     * @return the handled types, or an empty optional to always be asked with {@link #canResolve(Object)}
+     */
+    default Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.empty();
+    }
+
 }
@@ -3,6 +3,8 @@ package pro.verron.officestamper.api;
 import org.docx4j.openpackaging.packages.OpcPackage;
 
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * This is an interface that defines the contract for stamping
@@ -27,4 +29,22 @@ public interface OfficeStamper<T extends OpcPackage> {
 			Object context,
 			OutputStream outputStream
 	) throws OfficeStamperException;
+
+	/**
+	 * Takes a snapshot of the counters of the cache of parsed expressions shared by the stamps of this stamper.
+	 *
+	 * @return the statistics, or an empty optional if this stamper does not cache its expressions
+	 */
+	default Optional<ExpressionCacheStatistics> expressionCacheStatistics() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Takes a snapshot of the counters of each expression cached by this stamper, showing which ones got compiled.
+	 *
+	 * @return the statistics of the cached expressions, empty if this stamper does not cache its expressions
+	 */
+	default List<ExpressionStatistics> expressionStatistics() {
+		return List.of();
+	}
 }
@@ -7,6 +7,8 @@ import pro.verron.officestamper.api.CustomFunction.NeedsTriFunctionImpl;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -221,6 +223,91 @@ public interface OfficeStamperConfiguration {
             SpelParserConfiguration spelParserConfiguration
     );
 
+    /**
+     * Retrieves the maximum number of parsed expressions kept in cache by the stamper.
+     * <p>
+     * The default implementation returns the built-in size, 1024.
+     *
+     * @return the maximum size of the expression cache, zero when caching is disabled.
+     */
+    default int getExpressionCacheSize() {
+        return 1024;
+    }
+
+    /**
+     * Sets the maximum number of parsed expressions kept in cache by the stamper, and shared across its stamps.
+     * <p>
+     * The default implementation does not support changing the size.
+     *
+     * @param expressionCacheSize the maximum size of the expression cache, zero to disable caching.
+     *
+     * @return the updated OfficeStamperConfiguration object
+     *
+     * @throws UnsupportedOperationException if the configuration does not support changing the size.
+     */
+    default OfficeStamperConfiguration setExpressionCacheSize(int expressionCacheSize) {
+        throw new UnsupportedOperationException("setExpressionCacheSize");
+    }
+
+    /**
+     * Retrieves the number of evaluations after which a cached expression gets compiled to bytecode.
+     * <p>
+     * The default implementation returns zero, expressions are never compiled.
+     *
+     * @return the compilation threshold, zero when expressions are never compiled.
+     */
+    default int getExpressionCompileThreshold() {
+        return 0;
+    }
+
+    /**
+     * Sets the number of evaluations after which a cached expression gets compiled to bytecode.
+     * Expressions whose compiled form fails are reverted to interpretation.
+     * It requires the expression cache to be enabled.
+     * <p>
+     * The default implementation does not support changing the threshold.
+     *
+     * @param expressionCompileThreshold the compilation threshold, zero to never compile expressions.
+     *
+     * @return the updated OfficeStamperConfiguration object
+     *
+     * @throws UnsupportedOperationException if the configuration does not support changing the threshold.
+     */
+    default OfficeStamperConfiguration setExpressionCompileThreshold(int expressionCompileThreshold) {
+        throw new UnsupportedOperationException("setExpressionCompileThreshold");
+    }
+
+    /**
+     * Retrieves the executor used to stamp the items of a repeated document part in parallel.
+     * <p>
+     * The default implementation returns an empty optional, the items are stamped sequentially.
+     *
+     * @return the executor, or an empty optional when the items are stamped sequentially.
+     */
+    default Optional<Executor> getRepeatDocPartExecutor() {
+        return Optional.empty();
+    }
+
+    /**
+     * Sets the executor used to stamp the items of a repeated document part in parallel.
+     * The stamped items are still inserted in the order of their contexts.
+     * Only the outermost repeated parts are stamped in parallel: the parts repeated inside an item are stamped by the
+     * task stamping that item, so that a bounded executor cannot be exhausted by tasks waiting for nested ones. The
+     * document itself must not be stamped by a task of this executor, since it waits for the items.
+     *
+     * <p>
+     * The default implementation does not support setting an executor.
+     *
+     * @param repeatDocPartExecutor the executor, or null to stamp the items sequentially.
+     *
+     * @return the updated OfficeStamperConfiguration object
+     *
+     * @throws UnsupportedOperationException if the configuration does not support setting an executor.
+     */
+    default OfficeStamperConfiguration setRepeatDocPartExecutor(Executor repeatDocPartExecutor) {
+        throw new UnsupportedOperationException("setRepeatDocPartExecutor");
+    }
+
     /**
      * Retrieves the map of expression functions associated with their corresponding classes.
      *
@@ -6,6 +6,7 @@ import org.docx4j.wml.R;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -85,6 +86,17 @@ public interface Paragraph {
      */
     void replace(Placeholder placeholder, Object replacement);
 
+    /**
+     * Replaces several placeholders of the paragraph at once, each by its own run.
+     * Implementations may locate every placeholder first and splice the runs in a single pass, which is cheaper than
+     * replacing them one by one.
+     *
+     * @param replacements The runs replacing each placeholder, in the order the placeholders appear.
+     */
+    default void replaceAll(Map<Placeholder, R> replacements) {
+        replacements.forEach(this::replace);
+    }
+
     /**
      * Returns the paragraph as a string.
      *
@@ -2,6 +2,8 @@ package pro.verron.officestamper.api;
 
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 
+import java.util.List;
+
 /**
  * The ParagraphPlaceholderReplacer interface represents an object that can resolve expressions in a paragraph
  * and replace them with values provided by an expression resolver.
@@ -25,6 +27,38 @@ public interface ParagraphPlaceholderReplacer {
         resolveExpressionsForParagraph(paragraph, context, docxPart.document());
     }
 
+    /**
+     * Replaces the given placeholders, already found in the paragraph, with the values provided by the expression
+     * resolver, without scanning the paragraph for expressions again.
+     * <p>
+     * The default implementation ignores the given placeholders and finds the expressions again.
+     *
+     * @param docxPart     the docxPart in which to replace the placeholders
+     * @param paragraph    the paragraph in which to replace the placeholders
+     * @param placeholders the placeholders of the paragraph, as found before any change to it
+     * @param context      the context root
+     */
+    default void resolvePlaceholders(
+            DocxPart docxPart,
+            Paragraph paragraph,
+            List<Placeholder> placeholders,
+            Object context
+    ) {
+        resolveExpressionsForParagraph(docxPart, paragraph, context);
+    }
+
+    /**
+     * Replaces the line break placeholders of the given paragraph, for a paragraph without any expression to resolve.
+     * <p>
+     * The default implementation resolves an empty list of placeholders against an empty context.
+     *
+     * @param docxPart  the docxPart in which to replace the line breaks
+     * @param paragraph the paragraph in which to replace the line breaks
+     */
+    default void replaceLineBreaks(DocxPart docxPart, Paragraph paragraph) {
+        resolvePlaceholders(docxPart, paragraph, List.of(), new Object());
+    }
+
     /**
      * Finds expressions in the given paragraph and replaces them with the values provided by the expression resolver.
      *
@@ -4,6 +4,8 @@ import org.docx4j.openpackaging.packages.OpcPackage;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 /**
@@ -63,4 +65,26 @@ public class StreamStamper<T extends OpcPackage> {
         T mlPackage = loader.apply(inputStream);
         stamper.stamp(mlPackage, context, outputStream);
     }
+
+    /**
+     * Takes a snapshot of the counters of the cache of parsed expressions of the underlying stamper.
+     *
+     * @return the statistics, or an empty optional if the stamper does not cache its expressions
+     *
+     * @see OfficeStamper#expressionCacheStatistics()
+     */
+    public Optional<ExpressionCacheStatistics> expressionCacheStatistics() {
+        return stamper.expressionCacheStatistics();
+    }
+
+    /**
+     * Takes a snapshot of the counters of each expression cached by the underlying stamper.
+     *
+     * @return the statistics of the cached expressions, empty if the stamper does not cache its expressions
+     *
+     * @see OfficeStamper#expressionStatistics()
+     */
+    public List<ExpressionStatistics> expressionStatistics() {
+        return stamper.expressionStatistics();
+    }
 }
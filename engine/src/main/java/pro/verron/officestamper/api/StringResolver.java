@@ -3,6 +3,9 @@ package pro.verron.officestamper.api;
 import org.docx4j.wml.R;
 import org.springframework.lang.Nullable;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.WmlFactory.newRun;
 
 /**
@@ -62,6 +65,16 @@ public abstract class StringResolver<T>
         return type.isInstance(object);
     }
 
+    /**
+     * Declares the single type handled by this resolver.
+     *
+     * @return the type of object to be resolved
+     */
+    @Override
+    public final Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.of(Set.of(type));
+    }
+
     /**
      * Resolves an object to a string.
      *
@@ -0,0 +1,104 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.ExpressionStatistics;
+import pro.verron.officestamper.api.ExpressionStatistics.Compilation;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A parsed expression kept alive by an {@link ExpressionCache}, which can be compiled to bytecode once it has been
+ * evaluated often enough.
+ * <p>
+ * When the compilation threshold is reached, the expression is compiled with
+ * {@link SpelExpression#compileExpression()}. If the compiled form later fails, for example because the context
+ * types changed, the expression reverts to interpretation for good and the evaluation is retried.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public final class CachedExpression {
+
+    private final String expressionString;
+    private final Expression expression;
+    private final int compileThreshold;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final AtomicReference<Compilation> compilation = new AtomicReference<>(Compilation.INTERPRETED);
+
+    CachedExpression(String expressionString, Expression expression, int compileThreshold) {
+        this.expressionString = expressionString;
+        this.expression = expression;
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * Evaluates the expression against the given context, compiling it if it just reached the threshold.
+     *
+     * @param context the evaluation context.
+     *
+     * @return the value of the expression.
+     */
+    @Nullable public Object evaluate(EvaluationContext context) {
+        var value = getValue(context);
+        evaluations.increment();
+        if (compileThreshold > 0 && evaluations.sum() >= compileThreshold) compile();
+        return value;
+    }
+
+    @Nullable private Object getValue(EvaluationContext context) {
+        try {
+            return expression.getValue(context);
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) throw e;
+            revert();
+            return expression.getValue(context);
+        }
+    }
+
+    private void compile() {
+        if (!(expression instanceof SpelExpression spelExpression)) return;
+        if (!compilation.compareAndSet(Compilation.INTERPRETED, Compilation.COMPILING)) return;
+        var compiled = tryCompile(spelExpression);
+        compilation.compareAndSet(Compilation.COMPILING, compiled ? Compilation.COMPILED : Compilation.NOT_COMPILABLE);
+    }
+
+    private static boolean tryCompile(SpelExpression spelExpression) {
+        try {
+            return spelExpression.compileExpression();
+        } catch (IllegalStateException | SpelEvaluationException e) {
+            return false;
+        }
+    }
+
+    private void revert() {
+        if (expression instanceof SpelExpression spelExpression) spelExpression.revertToInterpreted();
+        fallbacks.increment();
+        compilation.set(Compilation.REVERTED);
+    }
+
+    /**
+     * Takes a snapshot of the counters of this expression.
+     *
+     * @return the statistics of this expression.
+     */
+    public ExpressionStatistics statistics() {
+        return new ExpressionStatistics(expressionString, evaluations.sum(), compilation.get(), fallbacks.sum());
+    }
+
+    /**
+     * Returns the underlying parsed expression.
+     *
+     * @return the parsed expression.
+     */
+    public Expression expression() {
+        return expression;
+    }
+}
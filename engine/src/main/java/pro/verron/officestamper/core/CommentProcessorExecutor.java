@@ -0,0 +1,82 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.TypedValue;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/// Invokes a comment processor method on the processor instance of the current stamp invocation.
+///
+/// Executors are cached by the parsed expressions they are resolved for, and those expressions are shared by all
+/// invocations of a [DocxStamper], so the executor cannot hold the processor instance itself: it is looked up in the
+/// [StampingEvaluationContext] given to each execution.
+///
+/// The method is called through an unbound method handle taking the processor first when it can be unreflected and
+/// the arguments fit its parameters as they are, and through reflection otherwise.
+///
+/// @param processorInterface the interface the comment processor was registered with.
+/// @param method             the interface method to invoke.
+/// @param handle             the handle of the method, taking the processor and the arguments array, if available.
+/// @param parameters         the parameter types of the method, to check the arguments of each invocation.
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+record CommentProcessorExecutor(
+        Class<?> processorInterface,
+        Method method,
+        @Nullable MethodHandle handle,
+        MethodHandleExecutor.Parameters parameters
+)
+        implements MethodExecutor {
+
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    CommentProcessorExecutor(Class<?> processorInterface, Method method) {
+        this(processorInterface,
+                method,
+                MethodHandleExecutor.unreflect(method)
+                                    .map(handle -> handle.asSpreader(Object[].class, method.getParameterCount())
+                                                         .asType(SPREAD_TYPE))
+                                    .orElse(null),
+                MethodHandleExecutor.Parameters.of(method));
+    }
+
+    @Override @NonNull
+    public TypedValue execute(
+            @NonNull EvaluationContext context,
+            @NonNull Object target,
+            @NonNull Object... arguments
+    )
+            throws AccessException {
+        if (!(context instanceof StampingEvaluationContext stampingContext))
+            throw new AccessException("Comment processor %s invoked outside of a stamp".formatted(processorInterface));
+        var processor = stampingContext.commentProcessor(processorInterface);
+        if (handle != null && processorInterface.isInstance(processor) && parameters.accept(arguments)) {
+            try {
+                var value = (Object) handle.invokeExact((Object) processor, arguments);
+                return new TypedValue(value);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw MethodHandleExecutor.failure(method, arguments, processor, e);
+            }
+        }
+        try {
+            var value = method.invoke(processor, arguments);
+            return new TypedValue(value);
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            var message = "Failed to invoke method %s with arguments [%s] from object %s"
+                    .formatted(method, Arrays.toString(arguments), processor);
+            throw new AccessException(message, e);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelParseException;
+import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.*;
 import pro.verron.officestamper.utils.WmlFactory;
 import pro.verron.officestamper.utils.WmlUtils;
@@ -14,6 +15,7 @@ import pro.verron.officestamper.utils.WmlUtils;
 import java.math.BigInteger;
 import java.util.*;
 
+import static org.docx4j.XmlUtils.unwrap;
 import static pro.verron.officestamper.core.Placeholders.findProcessors;
 
 /**
@@ -34,6 +36,10 @@ public class CommentProcessorRegistry {
     private final CommentProcessors commentProcessors;
     private final ExpressionResolver expressionResolver;
     private final ExceptionResolver exceptionResolver;
+    private final Map<Object, Integer> positions = new IdentityHashMap<>();
+    private final Set<Object> indexedParents = Collections.newSetFromMap(new IdentityHashMap<>());
+    @Nullable private final List<Child> commentElements;
+    private Map<BigInteger, Comment> comments;
 
     /**
      * Constructs a new CommentProcessorRegistry.
@@ -48,33 +54,62 @@ public class CommentProcessorRegistry {
             ExpressionResolver expressionResolver,
             CommentProcessors commentProcessors,
             ExceptionResolver exceptionResolver
+    ) {
+        this(source, expressionResolver, commentProcessors, exceptionResolver, null);
+    }
+
+    /**
+     * Constructs a new CommentProcessorRegistry, for a part whose comment anchors are already known.
+     *
+     * @param source             the source part of the Word document.
+     * @param expressionResolver the resolver for evaluating expressions.
+     * @param commentProcessors  map of comment processor instances keyed by their respective class types.
+     * @param exceptionResolver  the resolver for handling exceptions during processing.
+     * @param commentElements    the comment anchors of the part in document order, collected from the part if null.
+     */
+    CommentProcessorRegistry(
+            DocxPart source,
+            ExpressionResolver expressionResolver,
+            CommentProcessors commentProcessors,
+            ExceptionResolver exceptionResolver,
+            @Nullable List<Child> commentElements
     ) {
         this.source = source;
         this.expressionResolver = expressionResolver;
         this.commentProcessors = commentProcessors;
         this.exceptionResolver = exceptionResolver;
+        this.commentElements = commentElements;
     }
 
     public <T> void runProcessors(T expressionContext) {
         var proceedComments = new ArrayList<Comment>();
 
-        source.streamRun()
-              .forEach(run -> {
-                  var comments = collectComments();
-                  var runParent = StandardParagraph.from(source, (P) run.getParent());
-                  var optional = runProcessorsOnRunComment(comments, expressionContext, run, runParent);
-                  optional.ifPresent(proceedComments::add);
-              });
+        var runs = source.streamRun()
+                         .toList();
+        var runComments = indexRunComments(runs);
+        for (var run : runs) {
+            var commentId = runComments.get(run);
+            if (commentId == null) continue;
+            var runParent = StandardParagraph.from(source, (P) run.getParent());
+            var optional = runProcessorsOnRunComment(expressionContext, run, runParent, commentId);
+            optional.ifPresent(proceedComments::add);
+        }
         commentProcessors.commitChanges(source);
+        if (!runComments.isEmpty()) source.invalidate();
+        // the comments already processed on their run are not processed again on their paragraph
+        var runProceedComments = new HashSet<BigInteger>();
+        for (Comment comment : proceedComments)
+            runProceedComments.add(comment.getComment()
+                                          .getId());
 
         // we run the paragraph afterward so that the comments inside work before the whole paragraph comments
         source.streamParagraphs()
               .forEach(p -> {
-                  var comments = collectComments();
                   var paragraphComment = p.getComment();
                   paragraphComment.forEach((pc -> {
-                      var optional = runProcessorsOnParagraphComment(comments, expressionContext, p, pc.getId());
-                      commentProcessors.commitChanges(source);
+                      if (runProceedComments.contains(pc.getId())) return;
+                      var optional = runProcessorsOnParagraphComment(expressionContext, p, pc.getId());
+                      commitChanges();
                       optional.ifPresent(proceedComments::add);
                   }));
               });
@@ -82,7 +117,80 @@ public class CommentProcessorRegistry {
         source.streamParagraphs()
               .forEach(paragraph -> runProcessorsOnInlineContent(expressionContext, paragraph));
 
-        proceedComments.forEach(CommentUtil::deleteComment);
+        CommentUtil.deleteComments(proceedComments);
+        if (!proceedComments.isEmpty()) source.invalidate();
+    }
+
+    /// Commits the changes of the comment processors, then invalidates the part, whose content they may have changed.
+    private void commitChanges() {
+        commentProcessors.commitChanges(source);
+        source.invalidate();
+    }
+
+    /// Returns the root comments of the part, collected once, on first access. The comments are then dropped from
+    /// this index once processed, or once found detached from the part by the processors committed since.
+    private Map<BigInteger, Comment> comments() {
+        if (comments == null) comments = collectComments();
+        return comments;
+    }
+
+    /// Finds a root comment still to process, dropping it from the index if its range start was removed from the part
+    /// by a processor since the comments were collected.
+    private Optional<Comment> findComment(BigInteger id) {
+        var comment = comments().get(id);
+        if (comment == null) return Optional.empty();
+        if (isAttached(comment.getCommentRangeStart())) return Optional.of(comment);
+        comments.remove(id);
+        return Optional.empty();
+    }
+
+    /// Tells if an element is still in the part, going up its parents and checking each is still in the content of
+    /// its own parent. An element whose parent is unknown is considered attached, as it was when collected.
+    private boolean isAttached(@Nullable Object element) {
+        var child = element;
+        while (child instanceof Child c && c.getParent() instanceof ContentAccessor parent) {
+            var siblings = parent.getContent();
+            if (!contains(parent, siblings, child)) return false;
+            if (siblings == source.content()) return true;
+            child = parent;
+        }
+        return true;
+    }
+
+    /// Tells if a content holds an element, looking first at the position the element was last seen at, then at the
+    /// positions closer to it first. The positions of a content are indexed the first time it is looked in, so only
+    /// the contents changed by a processor are scanned again, and only as far as their elements moved.
+    private boolean contains(ContentAccessor parent, List<Object> siblings, Object child) {
+        if (indexedParents.add(parent))
+            for (int i = 0; i < siblings.size(); i++) positions.putIfAbsent(unwrap(siblings.get(i)), i);
+        var size = siblings.size();
+        var hint = Math.min(positions.getOrDefault(child, 0), size - 1);
+        for (int distance = 0; distance <= Math.max(hint, size - 1 - hint); distance++) {
+            if (isAt(siblings, hint - distance, child) || isAt(siblings, hint + distance, child)) return true;
+        }
+        return false;
+    }
+
+    private boolean isAt(List<Object> siblings, int position, Object child) {
+        if (position < 0 || position >= siblings.size() || unwrap(siblings.get(position)) != child) return false;
+        positions.put(child, position);
+        return true;
+    }
+
+    /// Finds, for each run, the id of the comment wrapping exactly that run, scanning each paragraph only once.
+    private static Map<R, BigInteger> indexRunComments(List<R> runs) {
+        var runComments = new IdentityHashMap<R, BigInteger>();
+        var scannedParents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (var run : runs) {
+            if (!(run.getParent() instanceof ContentAccessor parent) || !scannedParents.add(parent)) continue;
+            var content = parent.getContent();
+            for (int i = 0; i < content.size(); i++) {
+                if (content.get(i) instanceof R commented)
+                    CommentUtil.getCommentIdAround(content, i)
+                               .ifPresent(id -> runComments.put(commented, id));
+            }
+        }
+        return runComments;
     }
 
     private Map<BigInteger, Comment> collectComments() {
@@ -90,7 +198,7 @@ public class CommentProcessorRegistry {
         var allComments = new HashMap<BigInteger, Comment>();
         var stack = Collections.asLifoQueue(new ArrayDeque<Comment>());
 
-        var list = WmlUtils.extractCommentElements(document());
+        var list = commentElements != null ? commentElements : WmlUtils.extractCommentElements(source::content);
         for (Child commentElement : list) {
             if (commentElement instanceof CommentRangeStart crs) onRangeStart(crs, allComments, stack, rootComments);
             else if (commentElement instanceof CommentRangeEnd cre) onRangeEnd(cre, allComments, stack);
@@ -104,45 +212,41 @@ public class CommentProcessorRegistry {
                    .filter(comment -> allComments.containsKey(comment.getId()))
                    .forEach(comment -> allComments.get(comment.getId())
                                                   .setComment(comment));
-        return new HashMap<>(rootComments);
+        return rootComments;
     }
 
     private <T> Optional<Comment> runProcessorsOnRunComment(
-            Map<BigInteger, Comment> comments, T expressionContext, R run, Paragraph paragraph
+            T expressionContext, R run, Paragraph paragraph, BigInteger commentId
     ) {
-        return CommentUtil.getCommentAround(run, document())
-                          .flatMap(c -> Optional.ofNullable(comments.get(c.getId())))
-                          .flatMap(c -> {
-                              var cPlaceholder = c.asPlaceholder();
-                              var cComment = c.getComment();
-                              comments.remove(cComment.getId());
-                              commentProcessors.setContext(new ProcessorContext(paragraph, run, c, cPlaceholder));
-                              return runCommentProcessors(expressionContext, cPlaceholder)
-                                      ? Optional.of(c)
-                                      : Optional.empty();
-                          });
+        var c = findComment(commentId).orElse(null);
+        if (c == null || c.getComment() == null) return Optional.empty();
+        var cPlaceholder = c.asPlaceholder();
+        commentProcessors.setContext(new ProcessorContext(paragraph, run, c, cPlaceholder));
+        return runCommentProcessors(expressionContext, cPlaceholder) ? Optional.of(c) : Optional.empty();
     }
 
     /**
      * Takes the first comment on the specified paragraph and tries to evaluate
      * the string within the comment against all registered
      * {@link CommentProcessor}s.
+     * <p>
+     * The comment is dropped from the index once evaluated, so it is evaluated once.
      *
-     * @param comments          the comments within the document.
      * @param expressionContext the context root object
      * @param <T>               the type of the context root object.
      */
     private <T> Optional<Comment> runProcessorsOnParagraphComment(
-            Map<BigInteger, Comment> comments, T expressionContext, Paragraph paragraph, BigInteger paragraphCommentId
+            T expressionContext, Paragraph paragraph, BigInteger paragraphCommentId
     ) {
-        if (!comments.containsKey(paragraphCommentId)) return Optional.empty();
+        var optional = findComment(paragraphCommentId);
+        if (optional.isEmpty()) return Optional.empty();
 
-        var c = comments.get(paragraphCommentId);
+        var c = optional.get();
+        comments.remove(paragraphCommentId);
         var cPlaceholder = c.asPlaceholder();
-        var cComment = c.getComment();
-        comments.remove(cComment.getId());
         commentProcessors.setContext(new ProcessorContext(paragraph, null, c, cPlaceholder));
-        return runCommentProcessors(expressionContext, c.asPlaceholder()) ? Optional.of(c) : Optional.empty();
+        var processed = runCommentProcessors(expressionContext, c.asPlaceholder());
+        return processed ? Optional.of(c) : Optional.empty();
     }
 
     /**
@@ -154,9 +258,9 @@ public class CommentProcessorRegistry {
      * @param <T>       type of the context root object
      */
     private <T> void runProcessorsOnInlineContent(T context, Paragraph paragraph) {
-        var processorContexts = findProcessors(paragraph.asString()).stream()
-                                                                    .map(paragraph::processorContext)
-                                                                    .toList();
+        var processorContexts = findProcessors(paragraph).stream()
+                                                         .map(paragraph::processorContext)
+                                                         .toList();
         for (var processorContext : processorContexts) {
             commentProcessors.setContext(processorContext);
             var placeholder = processorContext.placeholder();
@@ -169,7 +273,7 @@ public class CommentProcessorRegistry {
                 var message = "Placeholder '%s' failed to process.".formatted(placeholder);
                 exceptionResolver.resolve(placeholder, message, e);
             }
-            commentProcessors.commitChanges(source);
+            commitChanges();
         }
     }
 
@@ -1,6 +1,5 @@
 package pro.verron.officestamper.core;
 
-import org.docx4j.XmlUtils;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.exceptions.InvalidFormatException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
@@ -8,8 +7,12 @@ import org.docx4j.openpackaging.parts.PartName;
 import org.docx4j.openpackaging.parts.Parts;
 import org.docx4j.openpackaging.parts.WordprocessingML.CommentsPart;
 import org.docx4j.wml.*;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.Comment;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.utils.WmlCloner;
+import pro.verron.officestamper.utils.WmlUtils;
 
 import java.math.BigInteger;
 import java.util.*;
@@ -29,6 +32,8 @@ import static pro.verron.officestamper.utils.WmlFactory.newComments;
  */
 public class CommentUtil {
     private static final PartName WORD_COMMENTS_PART_NAME;
+    private static final String COMMENTS_INDEX_KEY = "pro.verron.officestamper.commentsById";
+    private static final String POSITIONS_INDEX_KEY = "pro.verron.officestamper.contentPositions";
 
     static {
         try {
@@ -51,51 +56,111 @@ public class CommentUtil {
      * @return Optional of the comment, if found, Optional.empty() otherwise.
      */
     public static Optional<Comments.Comment> getCommentAround(R run, WordprocessingMLPackage document) {
-        ContentAccessor parent = (ContentAccessor) run.getParent();
-        if (parent == null) return Optional.empty();
-        return getComment(run, document, parent);
+        if (!(run.getParent() instanceof ContentAccessor parent)) return Optional.empty();
+        var content = parent.getContent();
+        return positionOf(document, parent, run).flatMap(position -> getCommentIdAround(content, position))
+                                                .flatMap(id -> findComment(document, id));
     }
 
-    private static Optional<Comments.Comment> getComment(
-            R run, WordprocessingMLPackage document, ContentAccessor parent
+    /// Finds the position of an element in the content of its parent, through an index of the positions of the
+    /// elements of each parent looked up so far, kept in the document. The comment anchors around the element are then
+    /// read at the positions next to it. An indexed position is checked to still hold the element, and the positions
+    /// of the parent are indexed again otherwise, so each element of a parent is found at the cost of a single scan of
+    /// the parent, as long as the parent does not change.
+    private static Optional<Integer> positionOf(
+            WordprocessingMLPackage document,
+            ContentAccessor parent,
+            Object element
     ) {
-        CommentRangeStart possibleComment = null;
-        boolean foundChild = false;
-        for (Object contentElement : parent.getContent()) {
-            // so first we look for the start of the comment
-            if (unwrap(contentElement) instanceof CommentRangeStart crs) possibleComment = crs;
-                // then we check if the child we are looking for is ours
-            else if (possibleComment != null && run.equals(contentElement)) foundChild = true;
-                // and then, if we have an end of a comment, we are good!
-            else if (possibleComment != null && foundChild && unwrap(contentElement) instanceof CommentRangeEnd) {
-                return findComment(document, possibleComment.getId());
-            }
-            // else restart
-            else {
-                possibleComment = null;// TODO There is  bug here when looking for a commented run and the run has
-                // ProofErr issues
-                foundChild = false;
-            }
+        var content = parent.getContent();
+        var index = contentPositions(document);
+        synchronized (index) {
+            var positions = index.get(parent);
+            var position = positions == null ? null : positions.positionOf(content, element);
+            if (position != null) return Optional.of(position);
+            positions = ContentPositions.of(content);
+            index.put(parent, positions);
+            return Optional.ofNullable(positions.positionOf(content, element));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<ContentAccessor, ContentPositions> contentPositions(WordprocessingMLPackage document) {
+        synchronized (document) {
+            if (document.getUserData(POSITIONS_INDEX_KEY) instanceof Map<?, ?> index)
+                return (Map<ContentAccessor, ContentPositions>) index;
+            var index = new WeakHashMap<ContentAccessor, ContentPositions>();
+            document.setUserData(POSITIONS_INDEX_KEY, index);
+            return index;
+        }
+    }
+
+    /**
+     * Returns the id of the comment wrapping exactly the element at the given position.
+     * <p>
+     * The element is commented when it directly follows a comment range start, and is followed by a comment range
+     * end, possibly after other comment range starts: the last range start before the end gives the comment.
+     *
+     * @param content the content holding the element.
+     * @param index   the position of the element in the content.
+     *
+     * @return Optional of the comment id, if the element is commented, Optional.empty() otherwise.
+     */
+    static Optional<BigInteger> getCommentIdAround(List<Object> content, int index) {
+        if (index == 0 || !(unwrap(content.get(index - 1)) instanceof CommentRangeStart start))
+            return Optional.empty();
+        int next = index + 1;
+        while (next < content.size() && unwrap(content.get(next)) instanceof CommentRangeStart nextStart) {
+            start = nextStart;
+            next++;
         }
+        if (next < content.size() && unwrap(content.get(next)) instanceof CommentRangeEnd)
+            return Optional.of(start.getId());
         return Optional.empty();
     }
 
     /**
      * Finds a comment with the given ID in the specified WordprocessingMLPackage document.
+     * <p>
+     * The lookup goes through an index of the positions of the comments by id, kept in the comments part. A comment
+     * found through the index is checked to still be at its indexed position, the index is rebuilt otherwise. An id
+     * missing from the index is checked to be missing from the comments as well the first time it is looked up, and
+     * then remembered as missing until the comments list changes, as told by its size and its last comment. So a
+     * lookup costs the same however many comments there are, and the index never answers with a stale comment.
      *
      * @param document the WordprocessingMLPackage document to search for the comment
      * @param id       the ID of the comment to find
      *
      * @return an Optional containing the Comment if found, or an empty Optional if not found
      */
-    private static Optional<Comments.Comment> findComment(WordprocessingMLPackage document, BigInteger id) {
-        return getCommentsPart(document.getParts()).map(CommentUtil::extractContent)
-                                                   .map(Comments::getComment)
-                                                   .stream()
-                                                   .flatMap(Collection::stream)
-                                                   .filter(comment -> id.equals(comment.getId()))
-                                                   .findFirst();
+    public static Optional<Comments.Comment> findComment(WordprocessingMLPackage document, BigInteger id) {
+        return getCommentsPart(document.getParts()).flatMap(commentsPart -> findComment(commentsPart, id));
+    }
 
+    private static Optional<Comments.Comment> findComment(CommentsPart commentsPart, BigInteger id) {
+        synchronized (commentsPart) {
+            var comments = extractContent(commentsPart).getComment();
+            if (commentsPart.getUserData(COMMENTS_INDEX_KEY) instanceof CommentsIndex index
+                && index.indexes(comments)) {
+                var position = index.positions()
+                                    .get(id);
+                if (position == null && index.misses()
+                                             .contains(id)) return Optional.empty();
+                if (position == null && comments.stream()
+                                                .noneMatch(comment -> id.equals(comment.getId()))) {
+                    index.misses()
+                         .add(id);
+                    return Optional.empty();
+                }
+                if (position != null && id.equals(comments.get(position)
+                                                          .getId())) return Optional.of(comments.get(position));
+            }
+            var index = CommentsIndex.of(comments);
+            commentsPart.setUserData(COMMENTS_INDEX_KEY, index);
+            return Optional.ofNullable(index.positions()
+                                            .get(id))
+                           .map(comments::get);
+        }
     }
 
     /**
@@ -110,17 +175,11 @@ public class CommentUtil {
     public static Collection<Comments.Comment> getCommentFor(
             List<Object> paragraphContent, WordprocessingMLPackage document
     ) {
-        var comments = getCommentsPart(document.getParts()).map(CommentUtil::extractContent)
-                                                           .map(Comments::getComment)
-                                                           .stream()
-                                                           .flatMap(Collection::stream)
-                                                           .toList();
-
         return paragraphContent.stream()
                                .filter(CommentRangeStart.class::isInstance)
                                .map(CommentRangeStart.class::cast)
                                .map(CommentRangeStart::getId)
-                               .flatMap(commentId -> findCommentById(comments, commentId).stream())
+                               .flatMap(commentId -> findComment(document, commentId).stream())
                                .toList();
     }
 
@@ -143,39 +202,28 @@ public class CommentUtil {
         }
     }
 
-    private static Optional<Comments.Comment> findCommentById(List<Comments.Comment> comments, BigInteger id) {
-        for (Comments.Comment comment : comments) {
-            if (id.equals(comment.getId())) {
-                return Optional.of(comment);
-            }
-        }
-        return Optional.empty();
-    }
-
     /**
      * Returns the string value of the specified comment object.
      *
      * @param comment a {@link Comment} object
      */
     public static void deleteComment(Comment comment) {
-        CommentRangeEnd end = comment.getCommentRangeEnd();
-        if (end != null) {
-            ContentAccessor endParent = (ContentAccessor) end.getParent();
-            endParent.getContent()
-                     .remove(end);
-        }
-        CommentRangeStart start = comment.getCommentRangeStart();
-        if (start != null) {
-            ContentAccessor startParent = (ContentAccessor) start.getParent();
-            startParent.getContent()
-                       .remove(start);
-        }
-        R.CommentReference reference = comment.getCommentReference();
-        if (reference != null) {
-            ContentAccessor referenceParent = (ContentAccessor) reference.getParent();
-            referenceParent.getContent()
-                           .remove(reference);
+        deleteComments(List.of(comment));
+    }
+
+    /**
+     * Deletes the anchors of several comments at once, compacting each content holding anchors only once.
+     *
+     * @param comments the comments to delete.
+     */
+    public static void deleteComments(Collection<Comment> comments) {
+        var anchors = new ArrayList<Child>(3 * comments.size());
+        for (Comment comment : comments) {
+            if (comment.getCommentRangeEnd() != null) anchors.add(comment.getCommentRangeEnd());
+            if (comment.getCommentRangeStart() != null) anchors.add(comment.getCommentRangeStart());
+            if (comment.getCommentReference() != null) anchors.add(comment.getCommentReference());
         }
+        WmlUtils.removeAll(anchors);
     }
 
     /**
@@ -210,7 +258,7 @@ public class CommentUtil {
                 deleteCommentFromElements(ca.getContent(), commentId);
             }
         }
-        items.removeAll(elementsToRemove);
+        WmlUtils.removeAll(items, elementsToRemove);
     }
 
     private static void deleteCommentFromElements(
@@ -236,7 +284,7 @@ public class CommentUtil {
 
         // copy the elements without comment range anchors
         var finalElements = elements.stream()
-                                    .map(XmlUtils::deepCopy)
+                                    .map(WmlCloner::deepCopy)
                                     .collect(Collectors.toCollection(ArrayList::new));
         deleteCommentFromElements(comment, finalElements);
         target.getMainDocumentPart()
@@ -278,4 +326,61 @@ public class CommentUtil {
         }
         return newComments(list);
     }
+
+    /**
+     * An index of the positions of comments by id, along with the ids known to be missing.
+     *
+     * @param comments  the indexed comments list.
+     * @param size      the size of the list when indexed.
+     * @param last      the last comment of the list when indexed, if any.
+     * @param positions the positions of the comments by id, the first comment wins when ids are duplicated.
+     * @param misses    the ids looked up and found missing from the list since it was indexed.
+     */
+    private record CommentsIndex(
+            List<Comments.Comment> comments,
+            int size,
+            @Nullable Comments.Comment last,
+            Map<BigInteger, Integer> positions,
+            Set<BigInteger> misses
+    ) {
+        static CommentsIndex of(List<Comments.Comment> comments) {
+            var positions = new HashMap<BigInteger, Integer>(comments.size() * 2);
+            for (int i = 0; i < comments.size(); i++) {
+                var id = comments.get(i)
+                                 .getId();
+                if (id != null) positions.putIfAbsent(id, i);
+            }
+            var last = comments.isEmpty() ? null : comments.get(comments.size() - 1);
+            return new CommentsIndex(comments, comments.size(), last, positions, new HashSet<>());
+        }
+
+        /// Tells if this index was built from the given list, and the list did not change since, as far as its size
+        /// and its last comment tell.
+        boolean indexes(List<Comments.Comment> list) {
+            return list == comments && list.size() == size && (size == 0 || list.get(size - 1) == last);
+        }
+    }
+
+    /**
+     * The positions of the elements of a content, by identity.
+     *
+     * @param content   the indexed content.
+     * @param positions the position of each element of the content.
+     */
+    private record ContentPositions(List<Object> content, Map<Object, Integer> positions) {
+        static ContentPositions of(List<Object> content) {
+            var positions = new IdentityHashMap<Object, Integer>(content.size() * 2);
+            for (int i = 0; i < content.size(); i++) positions.putIfAbsent(content.get(i), i);
+            return new ContentPositions(content, positions);
+        }
+
+        /// Finds the position of an element, if the given content is the indexed one and still holds the element at
+        /// its indexed position.
+        @Nullable Integer positionOf(List<Object> list, Object element) {
+            var position = positions.get(element);
+            if (position == null || list != content || position >= list.size() || list.get(position) != element)
+                return null;
+            return position;
+        }
+    }
 }
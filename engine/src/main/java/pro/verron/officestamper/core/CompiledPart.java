@@ -0,0 +1,137 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.TraversalUtil;
+import org.docx4j.XmlUtils;
+import org.docx4j.wml.CommentRangeEnd;
+import org.docx4j.wml.CommentRangeStart;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.Placeholder;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/// The analysis of a part of a compiled template, see [DocxCompiledTemplate], bound to each copy of the part stamped.
+///
+/// Compiling the part remembers its comment anchors, in document order, and the placeholders of its paragraphs no
+/// comment processor works on, the paragraphs out of any comment range and without inline processors. Each is
+/// remembered by its path in the content of the part, the way a [Stencil] remembers its paragraphs. Binding the
+/// analysis to a copy of the part, before it is stamped, locates the same elements in the copy: the comment tree of
+/// the copy is then built from its anchors, see [CommentProcessorRegistry], and these paragraphs are resolved with
+/// their known placeholders, see [PlaceholderReplacer], with no traversal of the copy nor scan of their text.
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+final class CompiledPart {
+
+    private final List<int[]> anchors;
+    private final List<Slot> slots;
+
+    private CompiledPart(List<int[]> anchors, List<Slot> slots) {
+        this.anchors = anchors;
+        this.slots = slots;
+    }
+
+    /// Analyzes a part of a template, left untouched.
+    ///
+    /// @param part                 the part to analyze.
+    /// @param lineBreakPlaceholder the placeholder replaced by line breaks, a paragraph holding it without other
+    ///                             placeholders being left to the usual resolution.
+    ///
+    /// @return the compiled part.
+    static CompiledPart compile(DocxPart part, String lineBreakPlaceholder) {
+        var walk = new Walk(part, lineBreakPlaceholder);
+        var content = part.content();
+        var path = new ArrayList<Integer>();
+        for (int i = 0; i < content.size(); i++) {
+            path.add(i);
+            walk.collect(XmlUtils.unwrap(content.get(i)), path);
+            path.remove(path.size() - 1);
+        }
+        return new CompiledPart(List.copyOf(walk.anchors), List.copyOf(walk.slots));
+    }
+
+    /// Locates the analyzed elements in a copy of the part, not stamped yet.
+    ///
+    /// @param copy the copy of the part.
+    ///
+    /// @return the comment anchors and the known paragraphs of the copy.
+    Binding bind(DocxPart copy) {
+        var content = copy.content();
+        var commentElements = new ArrayList<Child>(anchors.size());
+        for (int[] path : anchors) commentElements.add((Child) Stencil.locate(content, path));
+        var placeholders = new IdentityHashMap<P, List<Placeholder>>(slots.size() * 2);
+        for (Slot slot : slots) placeholders.put((P) Stencil.locate(content, slot.path()), slot.placeholders());
+        return new Binding(commentElements, placeholders);
+    }
+
+    /// The analysis of a part, located in a copy of the part.
+    ///
+    /// @param commentElements the comment anchors of the copy in document order, or `null` when they are not known and
+    ///                        are to be collected from the copy.
+    /// @param placeholders    the placeholders of each paragraph no comment processor works on, empty for a paragraph
+    ///                        with nothing to resolve.
+    record Binding(@Nullable List<Child> commentElements, Map<P, List<Placeholder>> placeholders) {
+        /// The binding of a part nothing is known of.
+        static final Binding NONE = new Binding(null, Map.of());
+    }
+
+    /// A paragraph no comment processor works on.
+    ///
+    /// @param path         the index of the element holding the paragraph in the part, then the index of each child
+    ///                     down to it.
+    /// @param placeholders the placeholders of the paragraph.
+    private record Slot(int[] path, List<Placeholder> placeholders) {}
+
+    /// The state of a single traversal of a part, walking the children as [TraversalUtil] does, so that the anchors
+    /// are found in the same order as a [org.docx4j.finders.CommentFinder] finds them.
+    private static final class Walk {
+        private final DocxPart source;
+        private final String lineBreakPlaceholder;
+        private final List<int[]> anchors = new ArrayList<>();
+        private final List<Slot> slots = new ArrayList<>();
+        private int openRanges;
+
+        private Walk(DocxPart source, String lineBreakPlaceholder) {
+            this.source = source;
+            this.lineBreakPlaceholder = lineBreakPlaceholder;
+        }
+
+        private void collect(Object element, List<Integer> path) {
+            if (element instanceof CommentRangeStart) openRanges++;
+            if (element instanceof CommentRangeEnd) openRanges = Math.max(0, openRanges - 1);
+            if (element instanceof CommentRangeStart || element instanceof CommentRangeEnd
+                || element instanceof R.CommentReference) anchors.add(Stencil.toArray(path));
+            var outOfRanges = openRanges == 0;
+            var anchorsBefore = anchors.size();
+            var children = TraversalUtil.getChildrenImpl(element);
+            if (children != null) {
+                for (int i = 0; i < children.size(); i++) {
+                    path.add(i);
+                    collect(XmlUtils.unwrap(children.get(i)), path);
+                    path.remove(path.size() - 1);
+                }
+            }
+            if (element instanceof P p && outOfRanges && anchors.size() == anchorsBefore) onQuietParagraph(p, path);
+        }
+
+        /// Remembers the placeholders of a paragraph out of any comment range, unless it holds inline processors, or
+        /// a line break placeholder alone.
+        private void onQuietParagraph(P p, List<Integer> path) {
+            var paragraph = StandardParagraph.from(source, p);
+            var scan = Placeholders.scan(paragraph);
+            var variables = scan.variables();
+            var lineBreaks = paragraph.asString()
+                                      .contains(lineBreakPlaceholder);
+            if (!scan.processors()
+                     .isEmpty() || variables.isEmpty() && lineBreaks) return;
+            slots.add(new Slot(Stencil.toArray(path), List.copyOf(variables)));
+        }
+    }
+}
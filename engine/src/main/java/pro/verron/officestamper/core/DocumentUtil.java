@@ -5,10 +5,11 @@ import org.docx4j.TraversalUtil;
 import org.docx4j.XmlUtils;
 import org.docx4j.finders.ClassFinder;
 import org.docx4j.model.structure.HeaderFooterPolicy;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.model.structure.SectionWrapper;
+import org.docx4j.openpackaging.packages.OpcPackage;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.JaxbXmlPart;
-import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
 import org.docx4j.utils.TraversalUtilVisitor;
 import org.docx4j.wml.*;
 import org.jvnet.jaxb2_commons.ppp.Child;
@@ -17,11 +18,13 @@ import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.OfficeStamperException;
 import pro.verron.officestamper.utils.ThrowingFunction;
 
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Stream.Builder;
+import static pro.verron.officestamper.core.ImageRegistry.createImagePart;
 import static pro.verron.officestamper.utils.WmlFactory.newRun;
 
 /**
@@ -34,13 +37,85 @@ import static pro.verron.officestamper.utils.WmlFactory.newRun;
  */
 public class DocumentUtil {
 
+    private static final String ON_STAMPED_KEY = "pro.verron.officestamper.onStamped";
+    private static final String SAVING_KEY = "pro.verron.officestamper.saving";
+
     private DocumentUtil() {
         throw new OfficeStamperException("Utility classes shouldn't be instantiated");
     }
 
+    /**
+     * Registers a change to apply once the document is stamped, see {@link #markStamped(OpcPackage)}. Changes may be
+     * registered concurrently, while copies of repeated parts are stamped in parallel.
+     *
+     * @param document the document being stamped.
+     * @param change   the change to apply.
+     */
+    public static void onStamped(OpcPackage document, Runnable change) {
+        synchronized (document) {
+            @SuppressWarnings("unchecked") var changes = (List<Runnable>) document.getUserData(ON_STAMPED_KEY);
+            if (changes == null) document.setUserData(ON_STAMPED_KEY, changes = new ArrayList<>());
+            changes.add(change);
+        }
+    }
+
+    /**
+     * Marks a document as stamped: its comments were processed and its expressions resolved, only the postprocessors
+     * and the save are left. The changes registered with {@link #onStamped(OpcPackage, Runnable)} are applied, in
+     * order.
+     *
+     * @param document the stamped document.
+     */
+    public static void markStamped(OpcPackage document) {
+        @SuppressWarnings("unchecked") var changes = (List<Runnable>) document.getUserData(ON_STAMPED_KEY);
+        document.setUserData(ON_STAMPED_KEY, null);
+        if (changes != null) changes.forEach(Runnable::run);
+    }
+
+    /**
+     * Saves a document, telling content generated lazily, like streamed table rows, that it is being written out, see
+     * {@link #isSaving(OpcPackage)}. Streamed images are copied from their source into the saved document without
+     * being read whole, see {@link StreamedImagePart}.
+     *
+     * @param document the document to save.
+     * @param out      the stream to write the document to.
+     *
+     * @throws Docx4JException if the document cannot be saved.
+     */
+    public static void save(OpcPackage document, OutputStream out)
+            throws Docx4JException {
+        document.setUserData(SAVING_KEY, Boolean.TRUE);
+        try {
+            StreamingPartStore.save(document, out);
+        } finally {
+            document.setUserData(SAVING_KEY, null);
+        }
+    }
+
+    /**
+     * Tells whether a document is being saved with {@link #save(OpcPackage, OutputStream)}.
+     *
+     * @param document the document.
+     *
+     * @return true if the document is being saved.
+     */
+    public static boolean isSaving(OpcPackage document) {
+        return Boolean.TRUE.equals(document.getUserData(SAVING_KEY));
+    }
+
+    /**
+     * Streams the elements of the given class found in the content of a part, at any depth.
+     * Only the content of the given {@link DocxPart} is visited, which may be a detached subtree of its part.
+     *
+     * @param source       the part whose content is visited.
+     * @param elementClass the class of the elements to find.
+     * @param <T>          the type of the elements to find.
+     *
+     * @return the found elements, in document order.
+     */
     public static <T> Stream<T> streamObjectElements(DocxPart source, Class<T> elementClass) {
         ClassFinder finder = new ClassFinder(elementClass);
-        TraversalUtil.visit(source.part(), finder);
+        TraversalUtil.visit((ContentAccessor) source::content, finder);
         return finder.results.stream()
                              .map(elementClass::cast);
     }
@@ -71,6 +146,9 @@ public class DocumentUtil {
 
     /**
      * Recursively walk through source accessor to find embedded images and import the target document.
+     * <p>
+     * Images already present in the target document, like the ones a sub document copied from it, are referenced
+     * instead of imported again, see {@link ImageRegistry}.
      *
      * @param container source container to walk.
      * @param source    source document containing image files.
@@ -84,6 +162,9 @@ public class DocumentUtil {
             WordprocessingMLPackage target
     ) {
         Map<R, R> replacements = new HashMap<>();
+        var docxImageExtractor = new DocxImageExtractor(source);
+        var registry = ImageRegistry.of(target);
+        var targetPart = target.getMainDocumentPart();
         for (Object obj : container.getContent()) {
             Queue<Object> queue = new ArrayDeque<>();
             queue.add(obj);
@@ -92,11 +173,20 @@ public class DocumentUtil {
                 Object currentObj = queue.remove();
 
                 if (currentObj instanceof R currentR && isImageRun(currentR)) {
-                    var docxImageExtractor = new DocxImageExtractor(source);
-                    var imageData = docxImageExtractor.getRunDrawingData(currentR);
                     var maxWidth = docxImageExtractor.getRunDrawingMaxWidth(currentR);
-                    var imagePart = tryCreateImagePart(target, imageData);
-                    var runWithImage = newRun(maxWidth, imagePart, "dummyFileName", "dummyAltText");
+                    var hash = docxImageExtractor.getRunDrawingHash(currentR);
+                    var reference = registry.reference(targetPart,
+                            hash,
+                            (document, part) -> createImagePart(document,
+                                    part,
+                                    hash,
+                                    docxImageExtractor.getRunDrawingData(currentR)));
+                    var runWithImage = newRun(maxWidth,
+                            reference.part(),
+                            reference.imageInfo(),
+                            reference.relationshipId(),
+                            "dummyFileName",
+                            "dummyAltText");
                     replacements.put(currentR, runWithImage);
                 }
                 else if (currentObj instanceof ContentAccessor contentAccessor)
@@ -122,14 +212,6 @@ public class DocumentUtil {
                   .anyMatch(Drawing.class::isInstance);
     }
 
-    private static BinaryPartAbstractImage tryCreateImagePart(WordprocessingMLPackage destDocument, byte[] imageData) {
-        try {
-            return BinaryPartAbstractImage.createImagePart(destDocument, imageData);
-        } catch (Exception e) {
-            throw new OfficeStamperException(e);
-        }
-    }
-
     /**
      * Finds the smallest common parent between two objects.
      *
@@ -190,6 +272,25 @@ public class DocumentUtil {
         visitPartIfExists(visitor, mainDocumentPart.getEndNotesPart());
     }
 
+    /// Visits the same parts of the document as [#visitDocument(WordprocessingMLPackage, TraversalUtilVisitor)], with
+    /// all the given visitors in a single traversal of each part.
+    ///
+    /// @param document the document to visit.
+    /// @param visitors the visitors, each one applied to the elements of its type.
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static void visitDocument(
+            WordprocessingMLPackage document,
+            List<? extends TraversalUtilVisitor<?>> visitors
+    ) {
+        if (visitors.isEmpty()) return;
+        List<TraversalUtilVisitor> compound = List.copyOf((List) visitors);
+        var mainDocumentPart = document.getMainDocumentPart();
+        TraversalUtil.visit(mainDocumentPart, compound);
+        streamHeaderFooterPart(document).forEach(f -> TraversalUtil.visit(f, compound));
+        partContents(mainDocumentPart.getFootnotesPart()).ifPresent(c -> TraversalUtil.visit(c, compound));
+        partContents(mainDocumentPart.getEndNotesPart()).ifPresent(c -> TraversalUtil.visit(c, compound));
+    }
+
     private static Stream<Object> streamHeaderFooterPart(WordprocessingMLPackage document) {
         return document.getDocumentModel()
                        .getSections()
@@ -199,10 +300,13 @@ public class DocumentUtil {
     }
 
     private static void visitPartIfExists(TraversalUtilVisitor<?> visitor, @Nullable JaxbXmlPart<?> part) {
+        partContents(part).ifPresent(c -> TraversalUtil.visit(c, visitor));
+    }
+
+    private static Optional<Object> partContents(@Nullable JaxbXmlPart<?> part) {
         ThrowingFunction<JaxbXmlPart<?>, Object> throwingFunction = JaxbXmlPart::getContents;
-        Optional.ofNullable(part)
-                .map(c -> throwingFunction.apply(c, OfficeStamperException::new))
-                .ifPresent(c -> TraversalUtil.visit(c, visitor));
+        return Optional.ofNullable(part)
+                       .map(c -> throwingFunction.apply(c, OfficeStamperException::new));
     }
 
     private static Stream<JaxbXmlPart<?>> extractHeaderFooterParts(HeaderFooterPolicy hfp) {
@@ -0,0 +1,242 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.io3.Load3;
+import org.docx4j.openpackaging.io3.stores.PartStore;
+import org.docx4j.openpackaging.io3.stores.ZipPartStore;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.docx4j.wml.CommentRangeStart;
+import org.docx4j.wml.R;
+import pro.verron.officestamper.api.CompiledTemplate;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.ExpressionCacheStatistics;
+import pro.verron.officestamper.api.ExpressionStatistics;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.Paragraph;
+import pro.verron.officestamper.core.CompiledPart.Binding;
+import pro.verron.officestamper.core.ImageRegistry.IndexedImage;
+import pro.verron.officestamper.utils.WmlCloner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/// A preprocessed and analyzed .docx template, ready to be stamped many times by a [DocxStamper].
+///
+/// The preprocessed package is kept parsed, along with the unzipped entries of its serialized form. Each stamp loads
+/// an independent package from those entries, which only reads the content types and relationships, then gives the
+/// parts parsed in the template a structural copy of their content, see [WmlCloner], so that no part is unzipped or
+/// unmarshalled again. The other parts are only unmarshalled if the stamp reads them. The analysis remembers which of
+/// the main, header and footer parts hold comments or placeholders, so stamping can skip the parts with nothing to
+/// resolve, the comment anchors and placeholders of the others, bound to each copy so that stamping neither collects
+/// the comments nor scans the paragraphs no comment processor works on, see [CompiledPart], and the hash of each
+/// image, so that the images a stamp inserts again are reused without reading the images of the copy, see
+/// [ImageRegistry].
+///
+/// A compiled template can be stamped from several threads at once: the entries and the template are only read, and
+/// each copy gets its own part store, see [CopyPartStore].
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+final class DocxCompiledTemplate
+        implements CompiledTemplate<WordprocessingMLPackage> {
+
+    private final DocxStamper stamper;
+    private final WordprocessingMLPackage template;
+    private final ZipPartStore snapshot;
+    private final Map<String, CompiledPart> activeParts;
+    private final Map<PartName, IndexedImage> images;
+
+    private DocxCompiledTemplate(
+            DocxStamper stamper,
+            WordprocessingMLPackage template,
+            ZipPartStore snapshot,
+            Map<String, CompiledPart> activeParts,
+            Map<PartName, IndexedImage> images
+    ) {
+        this.stamper = stamper;
+        this.template = template;
+        this.snapshot = snapshot;
+        this.activeParts = activeParts;
+        this.images = images;
+    }
+
+    /// Analyzes an already preprocessed document and snapshots it. The document is kept as the template, and should not
+    /// be changed afterward.
+    ///
+    /// @param stamper              the stamper that will stamp the compiled template.
+    /// @param document             the preprocessed document.
+    /// @param lineBreakPlaceholder the placeholder replaced by line breaks, which makes a part active on its own.
+    ///
+    /// @return the compiled template.
+    static DocxCompiledTemplate compile(
+            DocxStamper stamper,
+            WordprocessingMLPackage document,
+            String lineBreakPlaceholder
+    ) {
+        var activeParts = streamParts(document).filter(part -> isActive(part, lineBreakPlaceholder))
+                                               .collect(Collectors.toUnmodifiableMap(DocxCompiledTemplate::partName,
+                                                       part -> CompiledPart.compile(part, lineBreakPlaceholder)));
+        try {
+            var out = new ByteArrayOutputStream();
+            document.save(out);
+            var snapshot = new ZipPartStore(new ByteArrayInputStream(out.toByteArray()));
+            var images = Collections.unmodifiableMap(ImageRegistry.indexImages(document));
+            return new DocxCompiledTemplate(stamper, document, snapshot, activeParts, images);
+        } catch (Docx4JException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    /// Streams the header, main and footer parts of a document, in the order they are stamped.
+    private static Stream<DocxPart> streamParts(WordprocessingMLPackage document) {
+        var source = new TextualDocxPart(document);
+        return Stream.of(source.streamParts(Namespaces.HEADER),
+                             Stream.<DocxPart>of(source),
+                             source.streamParts(Namespaces.FOOTER))
+                     .flatMap(s -> s);
+    }
+
+    private static boolean isActive(DocxPart part, String lineBreakPlaceholder) {
+        if (hasCommentAnchors(part)) return true;
+        return part.streamParagraphs()
+                   .anyMatch(paragraph -> hasPlaceholders(paragraph, lineBreakPlaceholder));
+    }
+
+    private static boolean hasCommentAnchors(DocxPart part) {
+        return hasAny(part, CommentRangeStart.class) || hasAny(part, R.CommentReference.class);
+    }
+
+    private static boolean hasAny(DocxPart part, Class<?> elementClass) {
+        return DocumentUtil.streamObjectElements(part, elementClass)
+                           .findAny()
+                           .isPresent();
+    }
+
+    private static boolean hasPlaceholders(Paragraph paragraph, String lineBreakPlaceholder) {
+        if (paragraph.asString()
+                     .contains(lineBreakPlaceholder)) return true;
+        var scan = Placeholders.scan(paragraph);
+        if (!scan.variables()
+                 .isEmpty()) return true;
+        return !scan.processors()
+                    .isEmpty();
+    }
+
+    private static String partName(DocxPart part) {
+        return part.part()
+                   .getPartName()
+                   .getName();
+    }
+
+    @Override
+    public void stamp(Object context, OutputStream outputStream) {
+        try {
+            var document = copyTemplate();
+            var bindings = bind(document);
+            stamper.stampPreprocessed(document,
+                    context,
+                    outputStream,
+                    part -> Optional.ofNullable(bindings.get(partName(part))));
+        } catch (Docx4JException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    @Override
+    public Optional<ExpressionCacheStatistics> expressionCacheStatistics() {
+        return stamper.expressionCacheStatistics();
+    }
+
+    @Override
+    public List<ExpressionStatistics> expressionStatistics() {
+        return stamper.expressionStatistics();
+    }
+
+    /// Loads an independent copy of the template from the snapshot, with a copy of the content of the parts already
+    /// parsed in the template.
+    private WordprocessingMLPackage copyTemplate()
+            throws Docx4JException {
+        var document = (WordprocessingMLPackage) new Load3(new CopyPartStore(snapshot)).get();
+        var parts = document.getParts();
+        for (Part templatePart : template.getParts()
+                                         .getParts()
+                                         .values())
+            if (templatePart instanceof JaxbXmlPart<?> parsed && parsed.isUnmarshalled()
+                && parts.get(parsed.getPartName()) instanceof JaxbXmlPart<?> part) copyContent(parsed, part);
+        ImageRegistry.of(document)
+                     .index(images);
+        return document;
+    }
+
+    /// Binds the analysis of each active part to its copy, before anything is stamped.
+    private Map<String, Binding> bind(WordprocessingMLPackage document) {
+        var bindings = new HashMap<String, Binding>();
+        streamParts(document).forEach(part -> {
+            var compiledPart = activeParts.get(partName(part));
+            if (compiledPart != null) bindings.put(partName(part), compiledPart.bind(part));
+        });
+        return bindings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void copyContent(JaxbXmlPart<E> from, JaxbXmlPart<?> to) {
+        ((JaxbXmlPart<E>) to).setJaxbElement(WmlCloner.deepCopy(from.getJaxbElement()));
+    }
+
+    /// The part store of a copy of the template, reading the parts from the shared entries. docx4j saves a package
+    /// through its source part store, which keeps the stream being written, so copies saved at the same time cannot
+    /// share one.
+    private static final class CopyPartStore
+            extends ZipPartStore {
+
+        private final ZipPartStore snapshot;
+
+        private CopyPartStore(ZipPartStore snapshot) {
+            this.snapshot = snapshot;
+            super.setSourcePartStore(snapshot);
+        }
+
+        /// Saving sets the package store as its own source, the parts it does not hold are still read from the entries.
+        @Override
+        public void setSourcePartStore(PartStore partStore) {
+            super.setSourcePartStore(partStore == this ? snapshot : partStore);
+        }
+
+        @Override
+        public boolean partExists(String partName) {
+            return snapshot.partExists(partName);
+        }
+
+        @Override
+        public InputStream loadPart(String partName)
+                throws Docx4JException {
+            return snapshot.loadPart(partName);
+        }
+
+        @Override
+        public long getPartSize(String partName)
+                throws Docx4JException {
+            return snapshot.getPartSize(partName);
+        }
+
+        @Override
+        public ByteArray getByteArray(String partName)
+                throws Docx4JException {
+            return snapshot.getByteArray(partName);
+        }
+    }
+}
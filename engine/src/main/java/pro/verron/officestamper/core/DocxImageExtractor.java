@@ -49,6 +49,24 @@ public class DocxImageExtractor {
         return streamToByteArray(size, stream);
     }
 
+    /**
+     * Computes the content hash of an embedded image run, streaming the image instead of buffering it.
+     *
+     * @param run run containing the embedded drawing.
+     *
+     * @return the hash of the image, see {@link ImageRegistry#hash(InputStream)}.
+     */
+    String getRunDrawingHash(R run) {
+        String imageRelId = getPic(run).getBlipFill()
+                                       .getBlip()
+                                       .getEmbed();
+        try (InputStream stream = getImageStream(getImageRelPartName(imageRelId))) {
+            return ImageRegistry.hash(stream);
+        } catch (IOException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
     private static Pic getPic(R run) {
         for (Object runContent : run.getContent()) {
             if (!(runContent instanceof JAXBElement<?> runElement)) break;
@@ -3,11 +3,12 @@ package pro.verron.officestamper.core;
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import org.springframework.expression.MethodResolver;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.NonNull;
 import pro.verron.officestamper.api.*;
+import pro.verron.officestamper.core.CompiledPart.Binding;
 
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -15,8 +16,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
+import static pro.verron.officestamper.core.Invokers.streamCommentProcessorInvokers;
 import static pro.verron.officestamper.core.Invokers.streamInvokers;
 
 /// The DocxStamper class is an implementation of the [OfficeStamper]
@@ -28,15 +32,24 @@ import static pro.verron.officestamper.core.Invokers.streamInvokers;
 /// @version ${version}
 /// @since 1.0.0
 public class DocxStamper
-        implements OfficeStamper<WordprocessingMLPackage> {
+        implements OfficeStamper<WordprocessingMLPackage>, DocxPartStamper {
 
+    private final String lineBreakPlaceholder;
     private final List<PreProcessor> preprocessors;
     private final List<PostProcessor> postprocessors;
-    private final PlaceholderReplacer placeholderReplacer;
-    private final Function<DocxPart, CommentProcessorRegistry> commentProcessorRegistrySupplier;
+    private final ExpressionCache expressionCache;
+    private final EvaluationContextConfigurer evaluationContextConfigurer;
+    private final List<MethodResolver> methodResolvers;
+    private final ObjectResolverRegistry objectResolverRegistry;
+    private final Map<Class<?>, Function<ParagraphPlaceholderReplacer, CommentProcessor>> commentProcessorFactories;
+    private final ExceptionResolver exceptionResolver;
 
     /// Creates a new DocxStamper with the given configuration.
     ///
+    /// The resulting stamper only keeps immutable or thread-safe state: everything a stamp mutates (the evaluation
+    /// context, the placeholder replacer and the comment processors) is created for each invocation, so a single
+    /// DocxStamper can stamp documents from several threads at once.
+    ///
     /// @param configuration the configuration to use for this DocxStamper.
     public DocxStamper(OfficeStamperConfiguration configuration) {
         this(
@@ -49,6 +62,8 @@ public class DocxStamper
                 configuration.getPreprocessors(),
                 configuration.getPostprocessors(),
                 configuration.getSpelParserConfiguration(),
+                configuration.getExpressionCacheSize(),
+                configuration.getExpressionCompileThreshold(),
                 configuration.getExceptionResolver()
         );
     }
@@ -63,42 +78,31 @@ public class DocxStamper
             List<PreProcessor> preprocessors,
             List<PostProcessor> postprocessors,
             SpelParserConfiguration spelParserConfiguration,
+            int expressionCacheSize,
+            int expressionCompileThreshold,
             ExceptionResolver exceptionResolver
     ) {
+        this.lineBreakPlaceholder = lineBreakPlaceholder;
         var expressionParser = new SpelExpressionParser(spelParserConfiguration);
-
-        var evaluationContext = new StandardEvaluationContext();
-        evaluationContextConfigurer.configureEvaluationContext(evaluationContext);
-
-        var expressionResolver = new ExpressionResolver(evaluationContext, expressionParser);
-        var typeResolverRegistry = new ObjectResolverRegistry(resolvers);
-        this.placeholderReplacer = new PlaceholderReplacer(
-                typeResolverRegistry,
-                expressionResolver,
-                Placeholders.raw(lineBreakPlaceholder),
-                exceptionResolver);
-
-        var commentProcessors = buildCommentProcessors(configurationCommentProcessors);
-        evaluationContext.addMethodResolver(new Invokers(streamInvokers(commentProcessors)));
-        evaluationContext.addMethodResolver(new Invokers(streamInvokers(expressionFunctions)));
-        evaluationContext.addMethodResolver(new Invokers(functions.stream()
-                                                                  .map(Invokers::ofCustomFunction)));
-
-        this.commentProcessorRegistrySupplier = source -> new CommentProcessorRegistry(
-                source,
-                expressionResolver,
-                commentProcessors,
-                exceptionResolver);
-
-        this.preprocessors = new ArrayList<>(preprocessors);
-        this.postprocessors = new ArrayList<>(postprocessors);
+        this.expressionCache = new ExpressionCache(expressionParser,
+                expressionCacheSize,
+                expressionCompileThreshold);
+        this.evaluationContextConfigurer = evaluationContextConfigurer;
+        this.objectResolverRegistry = new ObjectResolverRegistry(resolvers);
+        this.commentProcessorFactories = Map.copyOf(configurationCommentProcessors);
+        this.exceptionResolver = exceptionResolver;
+        this.methodResolvers = List.of(
+                new Invokers(streamCommentProcessorInvokers(commentProcessorFactories.keySet())),
+                new Invokers(streamInvokers(expressionFunctions)),
+                new Invokers(functions.stream()
+                                      .map(Invokers::ofCustomFunction)));
+        this.preprocessors = List.copyOf(preprocessors);
+        this.postprocessors = List.copyOf(postprocessors);
     }
 
-    private CommentProcessors buildCommentProcessors(
-            Map<Class<?>, Function<ParagraphPlaceholderReplacer, CommentProcessor>> commentProcessors
-    ) {
+    private CommentProcessors buildCommentProcessors(ParagraphPlaceholderReplacer placeholderReplacer) {
         var processors = new HashMap<Class<?>, CommentProcessor>();
-        for (var entry : commentProcessors.entrySet()) {
+        for (var entry : commentProcessorFactories.entrySet()) {
             processors.put(
                     entry.getKey(),
                     entry.getValue()
@@ -107,6 +111,24 @@ public class DocxStamper
         return new CommentProcessors(processors);
     }
 
+    /// Exposes the counters of the cache of parsed expressions, shared by all the stamps of this DocxStamper and of
+    /// the templates it compiled.
+    ///
+    /// @return a snapshot of the expression cache statistics.
+    @Override
+    public Optional<ExpressionCacheStatistics> expressionCacheStatistics() {
+        return Optional.of(expressionCache.statistics());
+    }
+
+    /// Exposes the counters of each cached expression, telling how often it was evaluated and whether it was
+    /// compiled.
+    ///
+    /// @return a snapshot of the statistics of each cached expression.
+    @Override
+    public List<ExpressionStatistics> expressionStatistics() {
+        return expressionCache.expressionStatistics();
+    }
+
     /// Reads in a .docx template and "stamps" it into the given OutputStream, using the specified context object to
     /// fill out any expressions it finds.
     ///
@@ -140,44 +162,176 @@ public class DocxStamper
     /// may pass in a DOCX4J document as a template instead of an InputStream.
     @Override
     public void stamp(WordprocessingMLPackage document, Object contextRoot, OutputStream out) {
+        preprocess(document);
+        stampPreprocessed(document, contextRoot, out, part -> Optional.of(Binding.NONE));
+    }
+
+    /// Reads in a .docx template, runs the preprocessors on it and analyzes it once, so that it can be stamped
+    /// many times without paying for the loading and the template analysis again.
+    ///
+    /// @param template the .docx template to compile.
+    ///
+    /// @return an immutable [CompiledTemplate] stamped by this DocxStamper.
+    public CompiledTemplate<WordprocessingMLPackage> compile(InputStream template) {
+        try {
+            return compile(WordprocessingMLPackage.load(template));
+        } catch (Docx4JException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    /// Same as [#compile(InputStream)] except that you may pass in a DOCX4J document as a template instead of an
+    /// InputStream. The given document is preprocessed in place and should not be used afterward.
+    ///
+    /// @param document the DOCX4J document to compile.
+    ///
+    /// @return an immutable [CompiledTemplate] stamped by this DocxStamper.
+    public CompiledTemplate<WordprocessingMLPackage> compile(WordprocessingMLPackage document) {
+        preprocess(document);
+        return DocxCompiledTemplate.compile(this, document, lineBreakPlaceholder);
+    }
+
+    /// Stamps a document whose preprocessors already ran, only visiting the parts given a binding, with what is
+    /// already known of them, see [CompiledPart].
+    void stampPreprocessed(
+            WordprocessingMLPackage document,
+            Object contextRoot,
+            OutputStream out,
+            Function<DocxPart, Optional<Binding>> bindings
+    ) {
         try {
             var source = new TextualDocxPart(document);
-            preprocess(document);
-            processComments(source, contextRoot);
-            replaceExpressions(source, contextRoot);
+            var stamping = newStamping();
+            processComments(source, contextRoot, bindings, stamping);
+            replaceExpressions(source, contextRoot, bindings, stamping);
+            DocumentUtil.markStamped(document);
             postprocess(document);
-            document.save(out);
+            DocumentUtil.save(document, out);
         } catch (Docx4JException e) {
             throw new OfficeStamperException(e);
         }
     }
 
+    /// Stamps the content of a part in place, with its own comment processors, and without running the pre and
+    /// postprocessors nor saving anything. Used to stamp the copies of a repeated document part directly in the
+    /// document they are inserted in.
+    ///
+    /// @param part        the part to stamp, possibly a detached subtree of a part of the document.
+    /// @param contextRoot the context root object to resolve the expressions against.
+    @Override
+    public void stamp(DocxPart part, Object contextRoot) {
+        var stamping = newStamping();
+        runProcessors(part, contextRoot, stamping, Binding.NONE);
+        stamping.placeholderReplacer()
+                .resolveExpressions(part, contextRoot);
+    }
+
+    /// Creates the mutable state of a single stamp invocation.
+    private Stamping newStamping() {
+        var evaluationContext = new StampingEvaluationContext();
+        evaluationContextConfigurer.configureEvaluationContext(evaluationContext);
+        methodResolvers.forEach(evaluationContext::addMethodResolver);
+
+        var expressionResolver = new ExpressionResolver(evaluationContext, expressionCache);
+        var placeholderReplacer = new PlaceholderReplacer(
+                objectResolverRegistry,
+                expressionResolver,
+                Placeholders.raw(lineBreakPlaceholder),
+                exceptionResolver,
+                this);
+        var commentProcessors = buildCommentProcessors(placeholderReplacer);
+        evaluationContext.setCommentProcessors(commentProcessors);
+        return new Stamping(expressionResolver, placeholderReplacer, commentProcessors);
+    }
+
     private void preprocess(WordprocessingMLPackage document) {
-        preprocessors.forEach(processor -> processor.process(document));
+        process(document, preprocessors, PreProcessor::process);
     }
 
-    private void processComments(DocxPart document, Object contextObject) {
+    /// Runs the processors in order, the consecutive [VisitingProcessor]s sharing a single traversal of the document.
+    private static <T> void process(
+            WordprocessingMLPackage document,
+            List<T> processors,
+            BiConsumer<T, WordprocessingMLPackage> process
+    ) {
+        var visiting = new ArrayList<VisitingProcessor>();
+        for (T processor : processors) {
+            if (processor instanceof VisitingProcessor visitingProcessor) {
+                visiting.add(visitingProcessor);
+                continue;
+            }
+            VisitingProcessor.processAll(document, visiting);
+            visiting.clear();
+            process.accept(processor, document);
+        }
+        VisitingProcessor.processAll(document, visiting);
+    }
+
+    private void processComments(
+            DocxPart document,
+            Object contextObject,
+            Function<DocxPart, Optional<Binding>> bindings,
+            Stamping stamping
+    ) {
         document.streamParts(Namespaces.HEADER)
-                .forEach(header -> runProcessors(header, contextObject));
-        runProcessors(document, contextObject);
+                .forEach(header -> processPartComments(header, contextObject, bindings, stamping));
+        processPartComments(document, contextObject, bindings, stamping);
         document.streamParts(Namespaces.FOOTER)
-                .forEach(footer -> runProcessors(footer, contextObject));
+                .forEach(footer -> processPartComments(footer, contextObject, bindings, stamping));
+    }
+
+    private void processPartComments(
+            DocxPart part,
+            Object contextObject,
+            Function<DocxPart, Optional<Binding>> bindings,
+            Stamping stamping
+    ) {
+        bindings.apply(part)
+                .ifPresent(binding -> runProcessors(part, contextObject, stamping, binding));
     }
 
-    private void replaceExpressions(DocxPart document, Object contextObject) {
+    private void replaceExpressions(
+            DocxPart document,
+            Object contextObject,
+            Function<DocxPart, Optional<Binding>> bindings,
+            Stamping stamping
+    ) {
         document.streamParts(Namespaces.HEADER)
-                .forEach(s -> placeholderReplacer.resolveExpressions(s, contextObject));
-        placeholderReplacer.resolveExpressions(document, contextObject);
+                .forEach(header -> resolvePartExpressions(header, contextObject, bindings, stamping));
+        resolvePartExpressions(document, contextObject, bindings, stamping);
         document.streamParts(Namespaces.FOOTER)
-                .forEach(s -> placeholderReplacer.resolveExpressions(s, contextObject));
+                .forEach(footer -> resolvePartExpressions(footer, contextObject, bindings, stamping));
     }
 
-    private void runProcessors(DocxPart source, Object contextObject) {
-        var processors = commentProcessorRegistrySupplier.apply(source);
+    private static void resolvePartExpressions(
+            DocxPart part,
+            Object contextObject,
+            Function<DocxPart, Optional<Binding>> bindings,
+            Stamping stamping
+    ) {
+        bindings.apply(part)
+                .ifPresent(binding -> stamping.placeholderReplacer()
+                                              .resolveExpressions(part, contextObject, binding.placeholders()));
+    }
+
+    private void runProcessors(DocxPart source, Object contextObject, Stamping stamping, Binding binding) {
+        var processors = new CommentProcessorRegistry(
+                source,
+                stamping.expressionResolver(),
+                stamping.commentProcessors(),
+                exceptionResolver,
+                binding.commentElements());
         processors.runProcessors(contextObject);
     }
 
     private void postprocess(WordprocessingMLPackage document) {
-        postprocessors.forEach(processor -> processor.process(document));
+        process(document, postprocessors, PostProcessor::process);
     }
+
+    /// The mutable state of a single stamp invocation, never shared between invocations.
+    private record Stamping(
+            ExpressionResolver expressionResolver,
+            PlaceholderReplacer placeholderReplacer,
+            CommentProcessors commentProcessors
+    ) {}
 }
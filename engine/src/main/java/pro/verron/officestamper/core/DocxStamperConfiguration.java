@@ -3,6 +3,7 @@ package pro.verron.officestamper.core;
 
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.*;
 import pro.verron.officestamper.api.CustomFunction.NeedsBiFunctionImpl;
 import pro.verron.officestamper.api.CustomFunction.NeedsFunctionImpl;
@@ -16,6 +17,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -41,6 +44,9 @@ public class DocxStamperConfiguration
     private boolean replaceUnresolvedExpressions;
     private String unresolvedExpressionsDefaultValue;
     private SpelParserConfiguration spelParserConfiguration;
+    private int expressionCacheSize;
+    private int expressionCompileThreshold;
+    @Nullable private Executor repeatDocPartExecutor;
     private ExceptionResolver exceptionResolver;
 
     public DocxStamperConfiguration() {
@@ -57,6 +63,9 @@ public class DocxStamperConfiguration
         replaceUnresolvedExpressions = false;
         unresolvedExpressionsDefaultValue = null;
         spelParserConfiguration = new SpelParserConfiguration();
+        expressionCacheSize = 1024;
+        expressionCompileThreshold = 0;
+        repeatDocPartExecutor = null;
         exceptionResolver = computeExceptionResolver();
     }
 
@@ -262,6 +271,67 @@ public class DocxStamperConfiguration
         return this;
     }
 
+    @Override
+    public int getExpressionCacheSize() {
+        return expressionCacheSize;
+    }
+
+    /// Sets the maximum number of parsed expressions a [DocxStamper] keeps between evaluations and between stamps.
+    /// By default, 1024 expressions are kept, and `0` disables the cache.
+    ///
+    /// @param expressionCacheSize the maximum number of cached expressions.
+    ///
+    /// @return the configuration object for chaining.
+    @Override
+    public DocxStamperConfiguration setExpressionCacheSize(int expressionCacheSize) {
+        this.expressionCacheSize = expressionCacheSize;
+        return this;
+    }
+
+    @Override
+    public int getExpressionCompileThreshold() {
+        return expressionCompileThreshold;
+    }
+
+    /// Enables the compiled expressions mode: once a cached expression has been evaluated this many times, it is
+    /// compiled to bytecode, and it falls back to interpretation if the compiled form fails.
+    /// By default, the threshold is `0` and expressions are never compiled by the stamper.
+    ///
+    /// @param expressionCompileThreshold the number of evaluations before compiling an expression.
+    ///
+    /// @return the configuration object for chaining.
+    @Override
+    public DocxStamperConfiguration setExpressionCompileThreshold(int expressionCompileThreshold) {
+        this.expressionCompileThreshold = expressionCompileThreshold;
+        return this;
+    }
+
+    @Override
+    public Optional<Executor> getRepeatDocPartExecutor() {
+        return Optional.ofNullable(repeatDocPartExecutor);
+    }
+
+    /// Enables the parallel stamping of repeated document parts: the items of each `repeatDocPart` are stamped as
+    /// tasks of the given executor, a [java.util.concurrent.ForkJoinPool] for example, then inserted in the order of
+    /// their contexts.
+    /// By default, there is no executor and the items are stamped one after the other, on the calling thread.
+    ///
+    /// Only the outermost `repeatDocPart` items are stamped in parallel, the parts repeated inside an item being
+    /// stamped by the task stamping that item: no task waits for another one, so a bounded executor such as
+    /// [java.util.concurrent.Executors#newFixedThreadPool(int)] is fine. The document itself must not be stamped by a
+    /// task of the same executor, as it waits for its items.
+    ///
+    /// The expressions of the repeated items, and the objects they reach, are then evaluated concurrently.
+    ///
+    /// @param repeatDocPartExecutor the executor running the stamp of each item, or `null` to stamp sequentially.
+    ///
+    /// @return the configuration object for chaining.
+    @Override
+    public DocxStamperConfiguration setRepeatDocPartExecutor(@Nullable Executor repeatDocPartExecutor) {
+        this.repeatDocPartExecutor = repeatDocPartExecutor;
+        return this;
+    }
+
     @Override
     public Map<Class<?>, Object> getExpressionFunctions() {
         return expressionFunctions;
@@ -0,0 +1,89 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.TraversalUtil;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.SdtRun;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The paragraphs, SDT runs and paragraph runs of the content of a part, found in a single traversal of the content.
+ * <p>
+ * The paragraphs and SDT runs are the elements a {@link org.docx4j.finders.ClassFinder} looking for their exact class
+ * finds, in document order. The index is a snapshot: it is not updated when the content changes, and should be dropped
+ * then.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+final class ElementIndex {
+
+    private final List<P> paragraphs;
+    private final List<SdtRun> sdtRuns;
+    private final List<R> paragraphRuns;
+
+    private ElementIndex(List<P> paragraphs, List<SdtRun> sdtRuns, List<R> paragraphRuns) {
+        this.paragraphs = paragraphs;
+        this.sdtRuns = sdtRuns;
+        this.paragraphRuns = paragraphRuns;
+    }
+
+    /**
+     * Indexes the given content.
+     *
+     * @param content the content to index, at any depth.
+     *
+     * @return the index of the content.
+     */
+    static ElementIndex of(ContentAccessor content) {
+        var paragraphs = new ArrayList<P>();
+        var sdtRuns = new ArrayList<SdtRun>();
+        TraversalUtil.visit(content, new TraversalUtil.CallbackImpl() {
+            @Override
+            public List<Object> apply(Object o) {
+                if (o.getClass() == P.class) paragraphs.add((P) o);
+                else if (o.getClass() == SdtRun.class) sdtRuns.add((SdtRun) o);
+                return null;
+            }
+        });
+        var paragraphRuns = new ArrayList<R>();
+        for (P paragraph : paragraphs)
+            for (Object element : paragraph.getContent())
+                if (element instanceof R run) paragraphRuns.add(run);
+        return new ElementIndex(Collections.unmodifiableList(paragraphs),
+                Collections.unmodifiableList(sdtRuns),
+                Collections.unmodifiableList(paragraphRuns));
+    }
+
+    /**
+     * Lists the paragraphs of the content.
+     *
+     * @return the paragraphs, in document order.
+     */
+    List<P> paragraphs() {
+        return paragraphs;
+    }
+
+    /**
+     * Lists the SDT runs of the content.
+     *
+     * @return the SDT runs, in document order.
+     */
+    List<SdtRun> sdtRuns() {
+        return sdtRuns;
+    }
+
+    /**
+     * Lists the runs held directly by the paragraphs of the content.
+     *
+     * @return the runs, in document order.
+     */
+    List<R> paragraphRuns() {
+        return paragraphRuns;
+    }
+}
@@ -0,0 +1,120 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.ExpressionParser;
+import pro.verron.officestamper.api.ExpressionCacheStatistics;
+import pro.verron.officestamper.api.ExpressionStatistics;
+import pro.verron.officestamper.api.OfficeStamperException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded cache of parsed expressions, keyed by expression text.
+ * <p>
+ * A cache is bound to a single {@link ExpressionParser}, so the parser configuration is implicitly part of its key.
+ * Once the cache holds more than its maximum size, the oldest entries are evicted first.
+ * A maximum size of zero disables caching: every expression is parsed again.
+ * <p>
+ * With a positive compilation threshold, cached expressions are compiled to bytecode once they have been evaluated
+ * that many times, see {@link CachedExpression}.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public class ExpressionCache {
+
+    private final ExpressionParser parser;
+    private final int maximumSize;
+    private final int compileThreshold;
+    private final Map<String, CachedExpression> expressions = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new ExpressionCache that never compiles its expressions.
+     *
+     * @param parser      the parser used to parse the expressions missing from the cache.
+     * @param maximumSize the maximum number of expressions kept, zero to disable caching.
+     */
+    public ExpressionCache(ExpressionParser parser, int maximumSize) {
+        this(parser, maximumSize, 0);
+    }
+
+    /**
+     * Creates a new ExpressionCache.
+     *
+     * @param parser           the parser used to parse the expressions missing from the cache.
+     * @param maximumSize      the maximum number of expressions kept, zero to disable caching.
+     * @param compileThreshold the number of evaluations after which an expression gets compiled, zero to never
+     *                         compile.
+     */
+    public ExpressionCache(ExpressionParser parser, int maximumSize, int compileThreshold) {
+        if (maximumSize < 0)
+            throw new OfficeStamperException("Expression cache size must be positive or zero, got " + maximumSize);
+        if (compileThreshold < 0)
+            throw new OfficeStamperException("Compile threshold must be positive or zero, got " + compileThreshold);
+        this.parser = parser;
+        this.maximumSize = maximumSize;
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * Returns the parsed expression for the given text, parsing it only if it is not already cached.
+     *
+     * @param expressionString the expression text to parse.
+     *
+     * @return the parsed expression.
+     */
+    public CachedExpression get(String expressionString) {
+        var cached = expressions.get(expressionString);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        var expression = parser.parseExpression(expressionString);
+        if (maximumSize == 0) return new CachedExpression(expressionString, expression, 0);
+        var parsed = new CachedExpression(expressionString, expression, compileThreshold);
+        var concurrent = expressions.putIfAbsent(expressionString, parsed);
+        if (concurrent != null) return concurrent;
+        insertionOrder.add(expressionString);
+        evictOverflow();
+        return parsed;
+    }
+
+    private void evictOverflow() {
+        while (expressions.size() > maximumSize) {
+            var eldest = insertionOrder.poll();
+            if (eldest == null) return;
+            if (expressions.remove(eldest) != null) evictions.increment();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the cache counters.
+     *
+     * @return the current statistics of this cache.
+     */
+    public ExpressionCacheStatistics statistics() {
+        return new ExpressionCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), expressions.size());
+    }
+
+    /**
+     * Takes a snapshot of the counters of each cached expression, showing which ones got compiled.
+     *
+     * @return the statistics of the currently cached expressions.
+     */
+    public List<ExpressionStatistics> expressionStatistics() {
+        return expressions.values()
+                          .stream()
+                          .map(CachedExpression::statistics)
+                          .toList();
+    }
+}
@@ -1,6 +1,5 @@
 package pro.verron.officestamper.core;
 
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.Placeholder;
@@ -16,19 +15,20 @@ import pro.verron.officestamper.api.Placeholder;
  */
 public class ExpressionResolver {
 
-    private final ExpressionParser parser;
+    private final ExpressionCache expressions;
     private final StandardEvaluationContext evaluationContext;
 
     /**
      * Creates a new ExpressionResolver with the given SpEL parser configuration.
      *
      * @param standardEvaluationContext a {@link StandardEvaluationContext} object
+     * @param expressions               the cache providing the parsed expressions
      */
     public ExpressionResolver(
             StandardEvaluationContext standardEvaluationContext,
-            ExpressionParser expressionParser
+            ExpressionCache expressions
     ) {
-        this.parser = expressionParser;
+        this.expressions = expressions;
         this.evaluationContext = standardEvaluationContext;
     }
 
@@ -42,8 +42,8 @@ public class ExpressionResolver {
      */
     @Nullable public Object resolve(Placeholder placeholder) {
         var expressionString = placeholder.content();
-        var expression = parser.parseExpression(expressionString);
-        return expression.getValue(evaluationContext);
+        var expression = expressions.get(expressionString);
+        return expression.evaluate(evaluationContext);
     }
 
     /**
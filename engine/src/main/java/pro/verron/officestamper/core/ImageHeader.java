@@ -0,0 +1,222 @@
+package pro.verron.officestamper.core;
+
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.apache.xmlgraphics.image.loader.ImageSize;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.utils.ThrowingSupplier;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * The type, pixel size and resolution of an image, read from the header of PNG, JPEG, GIF and BMP files only.
+ * <p>
+ * Probing an image this way reads a few bytes, where docx4j copies the image to a temporary file and inspects it with
+ * a full image loading library. Probes are cached by image content hash, so an image inserted in many documents is
+ * only probed once. Other image formats are left to docx4j.
+ *
+ * @param mimeType the MIME type of the image.
+ * @param width    the width in pixels.
+ * @param height   the height in pixels.
+ * @param dpiX     the horizontal resolution in dots per inch.
+ * @param dpiY     the vertical resolution in dots per inch.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public record ImageHeader(String mimeType, int width, int height, double dpiX, double dpiY) {
+
+    /** The resolution assumed when an image does not specify one, the same as docx4j's image library. */
+    static final double DEFAULT_DPI = 72;
+    private static final double METER_PER_INCH = 0.0254;
+    private static final double CM_PER_INCH = 2.54;
+    private static final int CACHE_SIZE = 1024;
+    private static final Map<String, Optional<ImageHeader>> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(
+            16,
+            0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Optional<ImageHeader>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    /**
+     * Probes the header of an image, or reuses the probe of an image with the same content hash.
+     *
+     * @param hash   the hash of the image content, see {@link ImageRegistry#hash(byte[])}.
+     * @param source opens a stream on the image content, only called when the image was not probed yet.
+     *
+     * @return the header of the image, or empty when the format is not supported.
+     */
+    public static Optional<ImageHeader> probe(String hash, ThrowingSupplier<? extends InputStream> source) {
+        var cached = CACHE.get(hash);
+        if (cached != null) return cached;
+        Optional<ImageHeader> header;
+        try (var in = source.get()) {
+            header = probe(in);
+        }
+        catch (IOException e) {
+            throw new OfficeStamperException(e);
+        }
+        CACHE.put(hash, header);
+        return header;
+    }
+
+    /**
+     * Probes the header of an image, reading only the beginning of the stream.
+     *
+     * @param in the image content, the stream is not closed.
+     *
+     * @return the header of the image, or empty when the format is not supported or the header is malformed.
+     */
+    public static Optional<ImageHeader> probe(InputStream in) {
+        var data = new DataInputStream(new BufferedInputStream(in, 64));
+        try {
+            data.mark(2);
+            int first = data.readUnsignedByte();
+            int second = data.readUnsignedByte();
+            data.reset();
+            if (first == 0x89 && second == 'P') return png(data);
+            if (first == 0xFF && second == 0xD8) return jpeg(data);
+            if (first == 'G' && second == 'I') return gif(data);
+            if (first == 'B' && second == 'M') return bmp(data);
+            return Optional.empty();
+        } catch (EOFException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    private static Optional<ImageHeader> png(DataInputStream in)
+            throws IOException {
+        if (in.readLong() != 0x89504E470D0A1A0AL) return Optional.empty();
+        if (in.readInt() != 13 || in.readInt() != chunk("IHDR")) return Optional.empty();
+        int width = in.readInt();
+        int height = in.readInt();
+        in.skipNBytes(5 + 4L); // rest of IHDR and its CRC
+        while (true) {
+            int length = in.readInt();
+            int type = in.readInt();
+            if (type == chunk("pHYs")) {
+                long x = Integer.toUnsignedLong(in.readInt());
+                long y = Integer.toUnsignedLong(in.readInt());
+                boolean meters = in.readUnsignedByte() == 1;
+                return Optional.of(meters
+                        ? new ImageHeader("image/png", width, height, x * METER_PER_INCH, y * METER_PER_INCH)
+                        : new ImageHeader("image/png", width, height, DEFAULT_DPI, DEFAULT_DPI));
+            }
+            if (type == chunk("IDAT") || type == chunk("IEND"))
+                return Optional.of(new ImageHeader("image/png", width, height, DEFAULT_DPI, DEFAULT_DPI));
+            in.skipNBytes(Integer.toUnsignedLong(length) + 4);
+        }
+    }
+
+    private static int chunk(String type) {
+        return type.charAt(0) << 24 | type.charAt(1) << 16 | type.charAt(2) << 8 | type.charAt(3);
+    }
+
+    private static Optional<ImageHeader> jpeg(DataInputStream in)
+            throws IOException {
+        in.skipNBytes(2);
+        double dpiX = DEFAULT_DPI;
+        double dpiY = DEFAULT_DPI;
+        while (true) {
+            int marker = in.readUnsignedByte();
+            if (marker != 0xFF) return Optional.empty();
+            int type = in.readUnsignedByte();
+            while (type == 0xFF) type = in.readUnsignedByte();
+            // standalone markers carry no segment
+            if (type == 0x01 || (type >= 0xD0 && type <= 0xD7)) continue;
+            if (type == 0xD9 || type == 0xDA) return Optional.empty();
+            int length = in.readUnsignedShort() - 2;
+            if (isStartOfFrame(type)) {
+                in.skipNBytes(1);
+                int height = in.readUnsignedShort();
+                int width = in.readUnsignedShort();
+                return Optional.of(new ImageHeader("image/jpeg", width, height, dpiX, dpiY));
+            }
+            var segment = in.readNBytes(length);
+            if (segment.length < length) return Optional.empty();
+            if (type == 0xE0 && isJfif(segment)) {
+                var density = ByteBuffer.wrap(segment, 7, 5);
+                int units = density.get();
+                int x = Short.toUnsignedInt(density.getShort());
+                int y = Short.toUnsignedInt(density.getShort());
+                if (units == 1) {
+                    dpiX = x;
+                    dpiY = y;
+                }
+                else if (units == 2) {
+                    dpiX = x * CM_PER_INCH;
+                    dpiY = y * CM_PER_INCH;
+                }
+            }
+        }
+    }
+
+    private static boolean isJfif(byte[] segment) {
+        return segment.length >= 12 && segment[0] == 'J' && segment[1] == 'F' && segment[2] == 'I' && segment[3] == 'F'
+               && segment[4] == 0;
+    }
+
+    private static boolean isStartOfFrame(int type) {
+        return type >= 0xC0 && type <= 0xCF && type != 0xC4 && type != 0xC8 && type != 0xCC;
+    }
+
+    private static Optional<ImageHeader> gif(DataInputStream in)
+            throws IOException {
+        var signature = new String(in.readNBytes(6), US_ASCII);
+        if (!signature.equals("GIF87a") && !signature.equals("GIF89a")) return Optional.empty();
+        int width = Short.toUnsignedInt(Short.reverseBytes(in.readShort()));
+        int height = Short.toUnsignedInt(Short.reverseBytes(in.readShort()));
+        return Optional.of(new ImageHeader("image/gif", width, height, DEFAULT_DPI, DEFAULT_DPI));
+    }
+
+    private static Optional<ImageHeader> bmp(DataInputStream in)
+            throws IOException {
+        in.skipNBytes(14);
+        int headerSize = Integer.reverseBytes(in.readInt());
+        if (headerSize == 12) {
+            int width = Short.toUnsignedInt(Short.reverseBytes(in.readShort()));
+            int height = Short.toUnsignedInt(Short.reverseBytes(in.readShort()));
+            return Optional.of(new ImageHeader("image/bmp", width, height, DEFAULT_DPI, DEFAULT_DPI));
+        }
+        if (headerSize < 40) return Optional.empty();
+        int width = Integer.reverseBytes(in.readInt());
+        int height = Math.abs(Integer.reverseBytes(in.readInt()));
+        in.skipNBytes(12); // planes, bits per pixel, compression and image size
+        int x = Integer.reverseBytes(in.readInt());
+        int y = Integer.reverseBytes(in.readInt());
+        return Optional.of(new ImageHeader("image/bmp",
+                width,
+                height,
+                x > 0 ? x * METER_PER_INCH : DEFAULT_DPI,
+                y > 0 ? y * METER_PER_INCH : DEFAULT_DPI));
+    }
+
+    /**
+     * Converts this header to the image information docx4j uses to size the inline drawing of an image.
+     *
+     * @return the image information.
+     */
+    public ImageInfo toImageInfo() {
+        var info = new ImageInfo(null, mimeType);
+        var size = new ImageSize(width, height, dpiX, dpiY);
+        size.calcSizeFromPixels();
+        info.setSize(size);
+        return info;
+    }
+}
@@ -0,0 +1,323 @@
+package pro.verron.officestamper.core;
+
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.relationships.RelationshipsPart.AddPartBehaviour;
+import org.docx4j.relationships.Relationship;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.OfficeStamperException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps track of the image parts of a document, so that an image inserted many times is stored only once.
+ * <p>
+ * Images are identified by a hash of their content. The image parts already present in the document are indexed on
+ * first need, so that inserting an image the document already holds, like the images of a repeated document part,
+ * creates nothing. A compiled template hashes its images once, and gives that index to the registry of each copy.
+ * Otherwise, the first insertion of an image creates its part and the next ones reuse it. Each part referencing an
+ * image gets a single relationship to it, shared by all its runs.
+ * <p>
+ * The size of each image is kept along with its part, read from its header, see {@link ImageHeader}. Only the
+ * document images whose format the header probe knows are reused, as docx4j only knows the size of the images it
+ * created itself.
+ * <p>
+ * There is one registry per document, kept in the document itself, and it can be used from several threads.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public final class ImageRegistry {
+
+    private static final String REGISTRY_KEY = ImageRegistry.class.getName();
+
+    private final OpcPackage document;
+    private final Map<String, BinaryPartAbstractImage> imagesByHash = new HashMap<>();
+    private final Map<BinaryPartAbstractImage, ImageInfo> imageInfos = new IdentityHashMap<>();
+    private final Map<Part, Map<BinaryPartAbstractImage, Relationship>> relationships = new IdentityHashMap<>();
+    private boolean indexed;
+
+    private ImageRegistry(OpcPackage document) {
+        this.document = document;
+    }
+
+    /**
+     * Retrieves the image registry of a document, creating it on first use.
+     *
+     * @param document the document.
+     *
+     * @return the image registry of the document.
+     */
+    public static ImageRegistry of(OpcPackage document) {
+        synchronized (document) {
+            if (document.getUserData(REGISTRY_KEY) instanceof ImageRegistry registry) return registry;
+            var registry = new ImageRegistry(document);
+            document.setUserData(REGISTRY_KEY, registry);
+            return registry;
+        }
+    }
+
+    /**
+     * Computes the hash identifying an image content in a registry.
+     *
+     * @param bytes the content of the image.
+     *
+     * @return the hash of the content.
+     */
+    public static String hash(byte[] bytes) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                                      .digest(bytes);
+            return HexFormat.of()
+                            .formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    /**
+     * Finds the image part with the given content, creating it if needed, and the relationship the source part has
+     * to it, adding it if needed.
+     *
+     * @param source the part the image is inserted in.
+     * @param hash   the hash of the image content, as computed by {@link #hash(byte[])}.
+     * @param bytes  the content of the image.
+     *
+     * @return the image part, its size and the id of the relationship to use from the source part.
+     *
+     * @throws OfficeStamperException if the image part could not be created.
+     */
+    public ImageReference reference(Part source, String hash, byte[] bytes) {
+        return reference(source, hash, (document, part) -> createImagePart(document, part, hash, bytes));
+    }
+
+    /**
+     * Creates an image part holding the given content, with a relationship from the part it is inserted in.
+     * <p>
+     * The type and dimensions of the image are read from its header, see {@link ImageHeader}, and docx4j only probes
+     * the images whose format the header probe does not know.
+     *
+     * @param document the document to add the image part to.
+     * @param source   the part the image is inserted in.
+     * @param hash     the hash of the image content, as computed by {@link #hash(byte[])}.
+     * @param bytes    the content of the image.
+     *
+     * @return the image part.
+     *
+     * @throws Exception if the image part cannot be created.
+     */
+    public static BinaryPartAbstractImage createImagePart(OpcPackage document, Part source, String hash, byte[] bytes)
+            throws Exception {
+        var header = ImageHeader.probe(hash, () -> new ByteArrayInputStream(bytes));
+        if (header.isEmpty()) return BinaryPartAbstractImage.createImagePart(document, source, bytes);
+        var mimeType = header.get()
+                             .mimeType();
+        var relationshipId = source.getRelationshipsPart(true)
+                                   .getNextId();
+        var partName = BinaryPartAbstractImage.createImageName(document, source, relationshipId, extension(mimeType));
+        var imagePart = (BinaryPartAbstractImage) document.getContentTypeManager()
+                                                          .newPartForContentType(mimeType, partName, null);
+        imagePart.setBinaryData(bytes);
+        source.addTargetPart(imagePart, relationshipId);
+        return imagePart;
+    }
+
+    static String extension(String mimeType) {
+        return switch (mimeType) {
+            case "image/jpeg" -> "jpeg";
+            case "image/x-emf" -> "emf";
+            case "image/x-wmf" -> "wmf";
+            default -> mimeType.substring(mimeType.indexOf('/') + 1);
+        };
+    }
+
+    /**
+     * Finds the image part with the given content hash, creating it with the given factory if needed, and the
+     * relationship the source part has to it, adding it if needed.
+     *
+     * @param source  the part the image is inserted in.
+     * @param hash    the hash of the image content, as computed by {@link #hash(byte[])}.
+     * @param factory creates the image part, with a relationship from the source part, when the image is new.
+     *
+     * @return the image part, its size and the id of the relationship to use from the source part.
+     *
+     * @throws OfficeStamperException if the image part could not be created.
+     */
+    public synchronized ImageReference reference(Part source, String hash, ImagePartFactory factory) {
+        var image = find(hash);
+        if (image == null) {
+            image = createImagePart(source, factory);
+            imagesByHash.put(hash, image);
+            imageInfos.put(image, imageInfo(hash, image));
+        }
+        var found = image;
+        var relationship = relationships.computeIfAbsent(source, key -> new IdentityHashMap<>())
+                                        .computeIfAbsent(found,
+                                                key -> findRelationship(source, found).orElseGet(() -> addRelationship(
+                                                        source,
+                                                        found)));
+        return new ImageReference(image, imageInfos.get(image), relationship.getId());
+    }
+
+    @Nullable private BinaryPartAbstractImage find(String hash) {
+        var image = imagesByHash.get(hash);
+        if (image != null || indexed) return image;
+        indexExistingImages();
+        return imagesByHash.get(hash);
+    }
+
+    private void indexExistingImages() {
+        index(indexImages(document));
+    }
+
+    /**
+     * Hashes and probes the image parts of a document whose format the header probe knows, once, so that the
+     * registries of the copies of the document can index their images without reading them, see {@link #index(Map)}.
+     *
+     * @param document the document.
+     *
+     * @return the hash and header of each image part, by part name, in the order of the parts of the document.
+     */
+    public static Map<PartName, IndexedImage> indexImages(OpcPackage document) {
+        var images = new LinkedHashMap<PartName, IndexedImage>();
+        for (Part part : document.getParts()
+                                 .getParts()
+                                 .values()) {
+            if (!(part instanceof BinaryPartAbstractImage image)) continue;
+            var bytes = image.getBytes();
+            var hash = hash(bytes);
+            ImageHeader.probe(hash, () -> new ByteArrayInputStream(bytes))
+                       .ifPresent(header -> images.put(image.getPartName(), new IndexedImage(hash, header)));
+        }
+        return images;
+    }
+
+    /**
+     * Indexes the image parts of the document from an index computed beforehand, on the document itself or on the
+     * document it was copied from, instead of reading them on first need.
+     *
+     * @param images the hash and header of the image parts, by part name, as computed by
+     *               {@link #indexImages(OpcPackage)}.
+     */
+    public synchronized void index(Map<PartName, IndexedImage> images) {
+        indexed = true;
+        var parts = document.getParts();
+        images.forEach((partName, indexedImage) -> {
+            if (!(parts.get(partName) instanceof BinaryPartAbstractImage image)
+                || imagesByHash.putIfAbsent(indexedImage.hash(), image) != null) return;
+            imageInfos.put(image,
+                    indexedImage.header()
+                                .toImageInfo());
+        });
+    }
+
+    private static ImageInfo imageInfo(String hash, BinaryPartAbstractImage image) {
+        return ImageHeader.probe(hash, () -> new ByteArrayInputStream(image.getBytes()))
+                          .map(ImageHeader::toImageInfo)
+                          .orElseGet(() -> probedImageInfo(image));
+    }
+
+    /// docx4j deprecates the image information of its image parts, yet it is the only way to get the size of an image
+    /// in a format the header probe does not know, which docx4j probed when creating its part. It is only read here.
+    @SuppressWarnings("deprecation")
+    private static ImageInfo probedImageInfo(BinaryPartAbstractImage image) {
+        var imageInfo = image.getImageInfo();
+        if (imageInfo == null)
+            throw new OfficeStamperException("Failed to read the image information of " + image.getPartName());
+        return imageInfo;
+    }
+
+    private static Optional<Relationship> findRelationship(Part source, BinaryPartAbstractImage image) {
+        return Optional.ofNullable(source.getRelationshipsPart())
+                       .map(relationshipsPart -> relationshipsPart.getRel(image.getPartName()));
+    }
+
+    private BinaryPartAbstractImage createImagePart(Part source, ImagePartFactory factory) {
+        try {
+            return factory.create(document, source);
+        } catch (OfficeStamperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OfficeStamperException("Failed to create an ImagePart", e);
+        }
+    }
+
+    private static Relationship addRelationship(Part source, BinaryPartAbstractImage image) {
+        try {
+            return source.addTargetPart(image, AddPartBehaviour.REUSE_EXISTING);
+        } catch (Exception e) {
+            throw new OfficeStamperException("Failed to reference an ImagePart", e);
+        }
+    }
+
+    /**
+     * Computes the hash identifying an image content in a registry, reading the content as a stream.
+     *
+     * @param in the content of the image, the stream is not closed.
+     *
+     * @return the hash of the content, the same as {@link #hash(byte[])} would give.
+     *
+     * @throws OfficeStamperException if the content cannot be read.
+     */
+    public static String hash(InputStream in) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            var buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) digest.update(buffer, 0, read);
+            return HexFormat.of()
+                            .formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    /**
+     * Creates a new image part in a document, along with a relationship from the part it is inserted in.
+     */
+    @FunctionalInterface
+    public interface ImagePartFactory {
+        /**
+         * Creates the image part.
+         *
+         * @param document the document to add the image part to.
+         * @param source   the part the image is inserted in.
+         *
+         * @return the created image part.
+         *
+         * @throws Exception if the image part cannot be created.
+         */
+        BinaryPartAbstractImage create(OpcPackage document, Part source)
+                throws Exception;
+    }
+
+    /**
+     * The hash of the content of an image part, and its header.
+     *
+     * @param hash   the hash of the image content, as computed by {@link #hash(byte[])}.
+     * @param header the type and size of the image.
+     */
+    public record IndexedImage(String hash, ImageHeader header) {}
+
+    /**
+     * An image part, its size, and the id of the relationship to it from the part it is inserted in.
+     *
+     * @param part           the image part.
+     * @param imageInfo      the type and size of the image.
+     * @param relationshipId the id of the relationship.
+     */
+    public record ImageReference(BinaryPartAbstractImage part, ImageInfo imageInfo, String relationshipId) {}
+}
@@ -20,7 +20,7 @@ public record Invoker(String name, Invokers.Args args, MethodExecutor executor)
      * @param method the method to be invoked on the target object
      */
     public Invoker(Object obj, Method method) {
-        this(method.getName(), asList(method.getParameterTypes()), new ReflectionExecutor(obj, method));
+        this(method.getName(), asList(method.getParameterTypes()), MethodHandleExecutor.of(obj, method));
     }
 
     public Invoker(String name, List<Class<?>> args, MethodExecutor executor) {
@@ -9,10 +9,13 @@ import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.CustomFunction;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -24,12 +27,16 @@ import static java.util.stream.Collectors.toMap;
 
 /// Resolves methods used as expression functions or comment processors.
 ///
+/// Resolutions are cached per method name and argument classes, misses included, so that a given call is only matched
+/// against the registered overloads once.
+///
 /// @author Joseph Verron
 /// @version ${version}
 /// @since 1.6.2
 public class Invokers
         implements MethodResolver {
     private final Map<String, Map<Args, MethodExecutor>> map;
+    private final Map<Signature, Optional<MethodExecutor>> resolutions = new ConcurrentHashMap<>();
 
     public Invokers(Stream<Invoker> invokerStream) {
         map = invokerStream.collect(groupingBy(Invoker::name, toMap(Invoker::args, Invoker::executor)));
@@ -49,6 +56,14 @@ public class Invokers
         return stream(key.getDeclaredMethods()).map(method -> new Invoker(obj, method));
     }
 
+    static Stream<Invoker> streamCommentProcessorInvokers(Collection<Class<?>> processorInterfaces) {
+        return processorInterfaces.stream()
+                                  .flatMap(key -> stream(key.getDeclaredMethods())
+                                          .map(method -> new Invoker(method.getName(),
+                                                  asList(method.getParameterTypes()),
+                                                  new CommentProcessorExecutor(key, method))));
+    }
+
     static Invoker ofCustomFunction(CustomFunction cf) {
         var cfName = cf.name();
         var cfArgs = new Args(cf.parameterTypes());
@@ -63,40 +78,42 @@ public class Invokers
             @NonNull String name,
             @NonNull List<TypeDescriptor> argumentTypes
     ) {
-        var argumentClasses = argumentTypes.stream()
-                                           .map(this::typeDescriptor2Class)
-                                           .toList();
-        return map.getOrDefault(name, emptyMap())
+        var argumentClasses = new ArrayList<Class<?>>(argumentTypes.size());
+        for (TypeDescriptor argumentType : argumentTypes) argumentClasses.add(typeDescriptor2Class(argumentType));
+        return resolutions.computeIfAbsent(new Signature(name, argumentClasses), this::resolve)
+                          .orElse(null);
+    }
+
+    private Optional<MethodExecutor> resolve(Signature signature) {
+        return map.getOrDefault(signature.name(), emptyMap())
                   .entrySet()
                   .stream()
                   .filter(entry -> entry.getKey()
-                                        .validate(argumentClasses))
+                                        .validate(signature.argumentClasses()))
                   .map(Entry::getValue)
-                  .findFirst()
-                  .orElse(null);
+                  .findFirst();
     }
 
     /// When null, consider it as compatible with any type argument, so return Any.class placeholder
-    private Class typeDescriptor2Class(@Nullable TypeDescriptor typeDescriptor) {
+    private Class<?> typeDescriptor2Class(@Nullable TypeDescriptor typeDescriptor) {
         return typeDescriptor == null ? Any.class : typeDescriptor.getType();
     }
 
     public record Args(List<Class<?>> sourceTypes) {
-        public boolean validate(List<Class> searchedTypes) {
+        public boolean validate(List<Class<?>> searchedTypes) {
             if (searchedTypes.size() != sourceTypes.size()) return false;
-
-            var sourceTypesQ = new ArrayDeque<>(sourceTypes);
-            var searchedTypesQ = new ArrayDeque<>(searchedTypes);
-            var valid = true;
-            while (!sourceTypesQ.isEmpty() && valid) {
-                Class<?> parameterType = sourceTypesQ.remove();
-                Class<?> searchedType = searchedTypesQ.remove();
-                valid = searchedType == Any.class || parameterType.isAssignableFrom(searchedType);
+            for (int i = 0; i < sourceTypes.size(); i++) {
+                Class<?> parameterType = sourceTypes.get(i);
+                Class<?> searchedType = searchedTypes.get(i);
+                if (searchedType != Any.class && !parameterType.isAssignableFrom(searchedType)) return false;
             }
-            return valid;
+            return true;
         }
     }
 
+    /// The key of a cached resolution: a method name and the classes of the arguments it is called with.
+    private record Signature(String name, List<Class<?>> argumentClasses) {}
+
     /// Represent a placeholder validating all other classes as possible candidate for validation
     private class Any {}
 
@@ -0,0 +1,133 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.TypedValue;
+import org.springframework.lang.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Optional;
+
+/// Invokes a method on a fixed object through a method handle bound to it, instead of [Method#invoke].
+///
+/// The handle is built once, when the expression functions are registered, and then called with `invokeExact`, which
+/// skips the access and argument checks [Method#invoke] repeats on each call. The handle is read from the executor,
+/// not from a constant, so the JIT does not inline the method like a direct call. When the method cannot be
+/// unreflected, for example because its declaring interface is not accessible from this module,
+/// [#of(Object, Method)] falls back to a [ReflectionExecutor].
+///
+/// @param object     the object the method is invoked on.
+/// @param method     the invoked method.
+/// @param handle     the handle of the method bound to the object, taking the arguments as an array.
+/// @param parameters the parameter types of the method, to check the arguments of each invocation.
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+record MethodHandleExecutor(Object object, Method method, MethodHandle handle, Parameters parameters)
+        implements MethodExecutor {
+
+    private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    /// Creates the fastest available executor for the method.
+    ///
+    /// @param object the object the method is invoked on.
+    /// @param method the invoked method.
+    ///
+    /// @return a method handle executor, or a reflection executor if the method cannot be unreflected.
+    static MethodExecutor of(Object object, Method method) {
+        return unreflect(method).map(handle -> handle.bindTo(object)
+                                                     .asSpreader(Object[].class, method.getParameterCount())
+                                                     .asType(SPREAD_TYPE))
+                                .<MethodExecutor>map(handle -> new MethodHandleExecutor(object,
+                                        method,
+                                        handle,
+                                        Parameters.of(method)))
+                                .orElseGet(() -> new ReflectionExecutor(object, method));
+    }
+
+    /// Finds a method handle for the given method, if it is accessible from this module.
+    ///
+    /// @param method the method to unreflect.
+    ///
+    /// @return the handle, taking the receiver first for instance methods.
+    static Optional<MethodHandle> unreflect(Method method) {
+        try {
+            return Optional.of(MethodHandles.lookup()
+                                            .unreflect(method));
+        } catch (IllegalAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /// Wraps a failure of the method invoked through a method handle the same way reflection would report it.
+    static AccessException failure(Method method, Object[] arguments, Object object, Throwable throwable) {
+        var message = "Failed to invoke method %s with arguments [%s] from object %s"
+                .formatted(method, Arrays.toString(arguments), object);
+        return new AccessException(message, new InvocationTargetException(throwable));
+    }
+
+    @Override @NonNull
+    public TypedValue execute(
+            @NonNull EvaluationContext context,
+            @NonNull Object target,
+            @NonNull Object... arguments
+    )
+            throws AccessException {
+        if (!parameters.accept(arguments))
+            return new ReflectionExecutor(object, method).execute(context, target, arguments);
+        try {
+            var value = (Object) handle.invokeExact(arguments);
+            return new TypedValue(value);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw failure(method, arguments, object, e);
+        }
+    }
+
+    /// The parameter types of a method, and their boxed types, computed once for all its invocations.
+    ///
+    /// @param types the parameter types.
+    /// @param boxed the parameter types, primitive types replaced by their wrapper type.
+    record Parameters(Class<?>[] types, Class<?>[] boxed) {
+
+        /// Computes the parameter types of a method.
+        ///
+        /// @param method the method.
+        ///
+        /// @return its parameter types.
+        static Parameters of(Method method) {
+            var types = method.getParameterTypes();
+            var boxed = Arrays.stream(types)
+                              .map(type -> MethodType.methodType(type)
+                                                     .wrap()
+                                                     .returnType())
+                              .toArray(Class<?>[]::new);
+            return new Parameters(types, boxed);
+        }
+
+        /// Tells if the arguments can be given to the method as they are, so that a failure of its handle can only
+        /// come from the method itself. Other arguments, like arguments to widen or unbox into another primitive
+        /// type, are left to reflection, which converts them or reports them as [Method#invoke] does.
+        ///
+        /// @param arguments the arguments of the invocation.
+        ///
+        /// @return true if each argument is an instance of its boxed parameter type, and no primitive parameter is
+        ///         null.
+        boolean accept(Object[] arguments) {
+            if (arguments.length != types.length) return false;
+            for (int i = 0; i < types.length; i++) {
+                var argument = arguments[i];
+                if (argument == null ? types[i].isPrimitive() : !boxed[i].isInstance(argument)) return false;
+            }
+            return true;
+        }
+    }
+}
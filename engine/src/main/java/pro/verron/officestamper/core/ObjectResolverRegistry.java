@@ -9,9 +9,18 @@ import pro.verron.officestamper.api.Placeholder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A registry for object resolvers. It allows registering and resolving object resolvers based on certain criteria.
+ * <p>
+ * For each runtime class met, the registry remembers which resolvers could handle it, in registration order. Resolvers
+ * declaring their {@link ObjectResolver#resolvedTypes()} are kept only for the matching classes and are not asked
+ * again, as long as they declare them along with their {@link ObjectResolver#canResolve(Object)}; the other ones are
+ * still asked with {@link ObjectResolver#canResolve(Object)} on every value.
  *
  * @author Joseph Verron
  * @version ${version}
@@ -19,6 +28,7 @@ import java.util.List;
  */
 public final class ObjectResolverRegistry {
     private final List<ObjectResolver> resolvers = new ArrayList<>();
+    private final Map<Class<?>, List<Candidate>> candidates = new ConcurrentHashMap<>();
 
     /**
      * A registry for object resolvers. It allows registering and resolving object resolvers based on certain criteria.
@@ -44,9 +54,58 @@ public final class ObjectResolverRegistry {
             Placeholder placeholder,
             @Nullable Object object
     ) {
-        for (ObjectResolver resolver : resolvers)
-            if (resolver.canResolve(object))
-                return resolver.resolve(document, placeholder, object);
+        if (object == null) {
+            for (ObjectResolver resolver : resolvers)
+                if (resolver.canResolve(null))
+                    return resolver.resolve(document, placeholder, null);
+        }
+        else {
+            for (Candidate candidate : candidates.computeIfAbsent(object.getClass(), this::candidates))
+                if (candidate.canResolve(object))
+                    return candidate.resolver()
+                                    .resolve(document, placeholder, object);
+        }
         throw new OfficeStamperException("No resolver for %s".formatted(object));
     }
+
+    private List<Candidate> candidates(Class<?> type) {
+        var list = new ArrayList<Candidate>();
+        for (ObjectResolver resolver : resolvers) {
+            var resolvedTypes = declaredTypes(resolver);
+            if (resolvedTypes.isEmpty()) list.add(new Candidate(resolver, true));
+            else if (resolvedTypes.get()
+                                  .stream()
+                                  .anyMatch(resolvedType -> resolvedType.isAssignableFrom(type))) {
+                list.add(new Candidate(resolver, false));
+                break; // this one always resolves, the next ones would never be reached
+            }
+        }
+        return List.copyOf(list);
+    }
+
+    /**
+     * Trusts the types a resolver declares only when they were declared along with its
+     * {@link ObjectResolver#canResolve(Object)}, so that a subclass narrowing {@code canResolve} without declaring its
+     * own types is still asked every time.
+     */
+    private static Optional<Set<Class<?>>> declaredTypes(ObjectResolver resolver) {
+        var resolvedTypes = resolver.resolvedTypes();
+        if (resolvedTypes.isEmpty()) return resolvedTypes;
+        try {
+            var type = resolver.getClass();
+            var canResolveOwner = type.getMethod("canResolve", Object.class)
+                                      .getDeclaringClass();
+            var resolvedTypesOwner = type.getMethod("resolvedTypes")
+                                         .getDeclaringClass();
+            return canResolveOwner.isAssignableFrom(resolvedTypesOwner) ? resolvedTypes : Optional.empty();
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private record Candidate(ObjectResolver resolver, boolean probe) {
+        boolean canResolve(Object object) {
+            return !probe || resolver.canResolve(object);
+        }
+    }
 }
@@ -8,6 +8,10 @@ import org.springframework.expression.spel.SpelParseException;
 import pro.verron.officestamper.api.*;
 import pro.verron.officestamper.utils.WmlFactory;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Replaces expressions in a document with the values provided by the {@link ExpressionResolver}.
  *
@@ -23,6 +27,7 @@ public class PlaceholderReplacer
     private final ObjectResolverRegistry registry;
     private final Placeholder lineBreakPlaceholder;
     private final ExceptionResolver exceptionResolver;
+    private final DocxPartStamper partStamper;
 
     /**
      * <p>Constructor for PlaceholderReplacer.</p>
@@ -32,17 +37,31 @@ public class PlaceholderReplacer
      * @param linebreakPlaceholder if set to a non-null value,
      *                             all occurrences of this placeholder will be
      *                             replaced with a line break.
+     * @param exceptionResolver    the resolver of the expressions failing to resolve.
+     * @param partStamper          the stamper running this replacer.
      */
     public PlaceholderReplacer(
             ObjectResolverRegistry registry,
             ExpressionResolver resolver,
             Placeholder linebreakPlaceholder,
-            ExceptionResolver exceptionResolver
+            ExceptionResolver exceptionResolver,
+            DocxPartStamper partStamper
     ) {
         this.registry = registry;
         this.resolver = resolver;
         this.lineBreakPlaceholder = linebreakPlaceholder;
         this.exceptionResolver = exceptionResolver;
+        this.partStamper = partStamper;
+    }
+
+    /**
+     * Returns the stamper running this replacer, so that the comment processors stamping parts of the document on
+     * their own share its expression parser and caches.
+     *
+     * @return the stamper running this replacer.
+     */
+    public DocxPartStamper partStamper() {
+        return partStamper;
     }
 
     /**
@@ -52,8 +71,24 @@ public class PlaceholderReplacer
      * @param expressionContext the context root
      */
     public void resolveExpressions(DocxPart document, Object expressionContext) {
+        resolveExpressions(document, expressionContext, Map.of());
+    }
+
+    /// Same as [#resolveExpressions(DocxPart, Object)], except that the paragraphs whose placeholders are already known
+    /// are not scanned: their placeholders are resolved directly, and the ones without placeholders are left as is.
+    ///
+    /// @param document          the document in which to replace all expressions.
+    /// @param expressionContext the context root.
+    /// @param known             the placeholders of the paragraphs known to hold no others, see [CompiledPart].
+    void resolveExpressions(DocxPart document, Object expressionContext, Map<P, List<Placeholder>> known) {
         document.streamParagraphs()
-                .forEach(paragraph -> resolveExpressionsForParagraph(document, paragraph, expressionContext));
+                .forEach(paragraph -> {
+                    var placeholders = paragraph instanceof StandardParagraph standard ? known.get(standard.p()) : null;
+                    if (placeholders == null) resolveExpressionsForParagraph(document, paragraph, expressionContext);
+                    else if (!placeholders.isEmpty())
+                        resolvePlaceholders(document, paragraph, placeholders, expressionContext);
+                });
+        document.invalidate();
     }
 
     /**
@@ -68,11 +103,39 @@ public class PlaceholderReplacer
             Paragraph paragraph,
             Object context
     ) {
-        var expressions = Placeholders.findVariables(paragraph);
-        for (var expression : expressions) {
-            var replacement = resolve(docxPart, context, expression);
-            paragraph.replace(expression, replacement);
+        resolvePlaceholders(docxPart, paragraph, Placeholders.findVariables(paragraph), context);
+    }
+
+    /**
+     * Replaces the given placeholders, found in the paragraph beforehand, with the values provided by the expression
+     * resolver, then replaces the line break placeholders.
+     *
+     * @param docxPart     the document in which to replace the placeholders.
+     * @param paragraph    the paragraph in which to replace the placeholders.
+     * @param placeholders the placeholders of the paragraph.
+     * @param context      the context root
+     */
+    @Override public void resolvePlaceholders(
+            DocxPart docxPart,
+            Paragraph paragraph,
+            List<Placeholder> placeholders,
+            Object context
+    ) {
+        var replacements = new LinkedHashMap<Placeholder, R>(placeholders.size());
+        for (var placeholder : placeholders) {
+            replacements.put(placeholder, resolve(docxPart, context, placeholder));
         }
+        paragraph.replaceAll(replacements);
+        replaceLineBreaks(docxPart, paragraph);
+    }
+
+    /**
+     * Replaces the line break placeholders of the given paragraph with line breaks.
+     *
+     * @param docxPart  the document holding the paragraph.
+     * @param paragraph the paragraph in which to replace the line breaks.
+     */
+    @Override public void replaceLineBreaks(DocxPart docxPart, Paragraph paragraph) {
         paragraph.replace(lineBreakPlaceholder, getBr());
     }
 
@@ -0,0 +1,144 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.wml.R;
+import pro.verron.officestamper.api.Placeholder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Finds variable {@code ${...}} and processor {@code #{...}} placeholders in a single pass over the text of a
+ * paragraph.
+ * <p>
+ * The scanner walks the text of each run child directly, without joining the runs into a string first, and only
+ * allocates once it meets the opening of a placeholder, so paragraphs without placeholders cost a plain character
+ * scan. Both kinds of placeholder are tracked independently and are closed by their first closing brace, the same way
+ * {@code \$\{(.*?)}} and {@code #\{(.*?)}} would match them.
+ * <p>
+ * Each placeholder found records the run it starts in and its offset within that run, see
+ * {@link StandardPlaceholder}.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+final class PlaceholderScanner {
+
+    private final Track variables;
+    private final Track processors;
+    private int run;
+    private int offset;
+
+    private PlaceholderScanner(Matcher variableMatcher, Matcher processorMatcher) {
+        this.variables = new Track('$', variableMatcher);
+        this.processors = new Track('#', processorMatcher);
+    }
+
+    /**
+     * Scans the text of the given runs.
+     *
+     * @param runs             the runs of a paragraph, in document order.
+     * @param variableMatcher  the matcher attached to the variable placeholders found.
+     * @param processorMatcher the matcher attached to the processor placeholders found.
+     *
+     * @return the placeholders found.
+     */
+    static Scan scan(Iterable<R> runs, Matcher variableMatcher, Matcher processorMatcher) {
+        var scanner = new PlaceholderScanner(variableMatcher, processorMatcher);
+        for (R r : runs) {
+            for (Object content : r.getContent()) scanner.feed(RunUtil.getText(content));
+            scanner.run++;
+            scanner.offset = 0;
+        }
+        return scanner.result();
+    }
+
+    /**
+     * Scans a plain text, considered as a single run.
+     *
+     * @param text             the text to scan.
+     * @param variableMatcher  the matcher attached to the variable placeholders found.
+     * @param processorMatcher the matcher attached to the processor placeholders found.
+     *
+     * @return the placeholders found.
+     */
+    static Scan scan(CharSequence text, Matcher variableMatcher, Matcher processorMatcher) {
+        var scanner = new PlaceholderScanner(variableMatcher, processorMatcher);
+        scanner.feed(text);
+        return scanner.result();
+    }
+
+    private void feed(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            variables.accept(c, run, offset);
+            processors.accept(c, run, offset);
+            offset++;
+        }
+    }
+
+    private Scan result() {
+        return new Scan(variables.found(), processors.found());
+    }
+
+    /**
+     * The placeholders found in a text, each list in document order.
+     *
+     * @param variables  the {@code ${...}} placeholders.
+     * @param processors the {@code #{...}} placeholders.
+     */
+    record Scan(List<Placeholder> variables, List<Placeholder> processors) {}
+
+    /**
+     * The state of the search for one kind of placeholder.
+     */
+    private static final class Track {
+        private final char trigger;
+        private final Matcher matcher;
+        private List<Placeholder> found = emptyList();
+        private boolean triggered;
+        private StringBuilder expression;
+        private int startRun;
+        private int startOffset;
+
+        private Track(char trigger, Matcher matcher) {
+            this.trigger = trigger;
+            this.matcher = matcher;
+        }
+
+        private void accept(char c, int run, int offset) {
+            if (expression != null) {
+                expression.append(c);
+                if (c == '}') close();
+            }
+            else if (triggered && c == '{') open();
+            else if (c == trigger) trigger(run, offset);
+            else triggered = false;
+        }
+
+        // The trigger is remembered with its position, as it may end a run while the brace opens the next one
+        private void trigger(int run, int offset) {
+            triggered = true;
+            startRun = run;
+            startOffset = offset;
+        }
+
+        private void open() {
+            triggered = false;
+            expression = new StringBuilder().append(trigger)
+                                            .append('{');
+        }
+
+        private void close() {
+            if (found.isEmpty()) found = new ArrayList<>();
+            found.add(new StandardPlaceholder(matcher, expression.toString(), startRun, startOffset));
+            expression = null;
+        }
+
+        private List<Placeholder> found() {
+            return found;
+        }
+    }
+}
@@ -5,56 +5,31 @@ import pro.verron.officestamper.api.Paragraph;
 import pro.verron.officestamper.api.Placeholder;
 
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * The Expressions class provides utility methods for finding variables and processors in a given text.
  * It contains multiple constant variables for different types of expressions, such as VAR_MATCHER for variable
  * expressions and PROC_MATCHER for processor expressions.
- * The findVariables() method uses VAR_FINDER to find variable expressions in a given text and returns a list of found
+ * The findVariables() method finds variable expressions in a given text and returns a list of found
  * expressions.
- * The findProcessors() method uses PROC_FINDER to find processor expressions in a given text and returns a list of
+ * The findProcessors() method finds processor expressions in a given text and returns a list of
  * found expressions.
+ * Both kinds are found with a single {@link PlaceholderScanner} pass, over the runs of a paragraph when possible.
  * The raw() method creates a new Expression object using the RAW_MATCHER and a specified text.
  */
 public class Placeholders {
-    /**
-     * A regular expression pattern matching processor expressions.
-     * The pattern search for expressions starting with '#{' and ending with
-     * '}'.
-     */
-    private static final Pattern PROC_PATTERN = Pattern.compile("#\\{(.*?)}", Pattern.DOTALL);
     /**
      * A Matcher matching processor expressions.
      * The matcher checks for expressions starting with '#{' and ending with
      * '}'.
      */
     private static final Matcher PROC_MATCHER = new Matcher("#{", "}");
-    /**
-     * An ExpressionFinder to find processor expressions.
-     * It is initialized with a specified pattern and matcher.
-     */
-    private static final PlaceholderFinder PROC_FINDER =
-            new PlaceholderFinder(PROC_PATTERN, PROC_MATCHER);
-
-    /**
-     * A regular expression pattern matching processor expressions.
-     * The pattern search for expressions starting with '${' and ending with
-     * '}'.
-     */
-    private static final Pattern VAR_PATTERN = Pattern.compile("\\$\\{(.*?)}", Pattern.DOTALL);
     /**
      * A Matcher matching processor expressions.
      * The matcher checks for expressions starting with '${' and ending with
      * '}'.
      */
     private static final Matcher VAR_MATCHER = new Matcher("${", "}");
-    /**
-     * An ExpressionFinder to find variable expressions.
-     * It is initialized with a specified pattern and matcher.
-     */
-    private static final PlaceholderFinder VAR_FINDER =
-            new PlaceholderFinder(VAR_PATTERN, VAR_MATCHER);
     /**
      * A Matcher matching raw expressions.
      * It is typically used to wrap raw expressions that do not have a
@@ -74,7 +49,36 @@ public class Placeholders {
      * @return a list of found variable expressions as {@link Placeholder} objects
      */
     public static List<Placeholder> findVariables(Paragraph paragraph) {
-        return findVariables(paragraph.asString());
+        return scan(paragraph).variables();
+    }
+
+    /**
+     * Finds processor expressions in a given paragraph.
+     *
+     * @param paragraph the paragraph in which to search for processor expressions
+     *
+     * @return a list of found processor expressions as {@link Placeholder} objects
+     */
+    public static List<Placeholder> findProcessors(Paragraph paragraph) {
+        return scan(paragraph).processors();
+    }
+
+    /**
+     * Finds both variable and processor expressions in a given paragraph, in a single pass.
+     * Standard paragraphs are scanned run by run, without joining their text.
+     *
+     * @param paragraph the paragraph in which to search for expressions
+     *
+     * @return the found expressions
+     */
+    static PlaceholderScanner.Scan scan(Paragraph paragraph) {
+        if (paragraph instanceof StandardParagraph standardParagraph)
+            return PlaceholderScanner.scan(standardParagraph.runs(), VAR_MATCHER, PROC_MATCHER);
+        return scan(paragraph.asString());
+    }
+
+    static PlaceholderScanner.Scan scan(String text) {
+        return PlaceholderScanner.scan(text, VAR_MATCHER, PROC_MATCHER);
     }
 
     /**
@@ -85,7 +89,7 @@ public class Placeholders {
      * @return a list of found variable expressions as {@link StandardPlaceholder} objects
      */
     public static List<Placeholder> findVariables(String text) {
-        return VAR_FINDER.find(text);
+        return scan(text).variables();
     }
 
     /**
@@ -97,7 +101,7 @@ public class Placeholders {
      * objects
      */
     public static List<Placeholder> findProcessors(String text) {
-        return PROC_FINDER.find(text);
+        return scan(text).processors();
     }
 
     /**
@@ -142,8 +142,9 @@ public class RunUtil {
     }
 
     static int getLength(R run) {
-        return getText(run)
-                .length();
+        int length = 0;
+        for (Object content : run.getContent()) length += getText(content).length();
+        return length;
     }
 
     static String getSubstring(R run, int beginIndex) {
@@ -1,6 +1,5 @@
 package pro.verron.officestamper.core;
 
-import org.docx4j.XmlUtils;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.P;
 import org.docx4j.wml.PPr;
@@ -8,6 +7,7 @@ import org.docx4j.wml.SectPr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.utils.WmlCloner;
 import pro.verron.officestamper.utils.WmlFactory;
 
 import java.util.List;
@@ -84,7 +84,7 @@ public class SectionUtil {
      */
     public static void applySectionBreakToParagraph(SectPr sectPr, P paragraph) {
         PPr nextPPr = ofNullable(paragraph.getPPr()).orElseGet(WmlFactory::newPPr);
-        nextPPr.setSectPr(XmlUtils.deepCopy(sectPr));
+        nextPPr.setSectPr(WmlCloner.deepCopy(sectPr));
         paragraph.setPPr(nextPPr);
     }
 }
@@ -0,0 +1,37 @@
+package pro.verron.officestamper.core;
+
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import pro.verron.officestamper.api.CommentProcessor;
+import pro.verron.officestamper.api.OfficeStamperException;
+
+/// The evaluation context of a single stamp invocation.
+///
+/// Besides the usual [StandardEvaluationContext] features, it carries the comment processors created for this
+/// invocation, so that the method executors shared by all invocations of a [DocxStamper] can find them.
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+final class StampingEvaluationContext
+        extends StandardEvaluationContext {
+
+    private CommentProcessors commentProcessors;
+
+    /// Binds the comment processors of the current stamp invocation to this context.
+    ///
+    /// @param commentProcessors the comment processors of the invocation.
+    void setCommentProcessors(CommentProcessors commentProcessors) {
+        this.commentProcessors = commentProcessors;
+    }
+
+    /// Finds the comment processor registered for the given interface in the current stamp invocation.
+    ///
+    /// @param processorInterface the interface the comment processor was registered with.
+    ///
+    /// @return the comment processor instance of this invocation.
+    CommentProcessor commentProcessor(Class<?> processorInterface) {
+        if (commentProcessors == null || !commentProcessors.containsKey(processorInterface))
+            throw new OfficeStamperException("No comment processor for %s".formatted(processorInterface));
+        return commentProcessors.get(processorInterface);
+    }
+}
@@ -92,10 +92,7 @@ public class StandardParagraph
     }
 
     @Override public void replace(List<P> toRemove, List<P> toAdd) {
-        int index = siblings().indexOf(p);
-        if (index < 0) throw new OfficeStamperException("Impossible");
-        siblings().addAll(index, toAdd);
-        siblings().removeAll(toRemove);
+        WmlUtils.splice(siblings(), toRemove, toAdd);
     }
 
     private List<Object> siblings() {
@@ -153,6 +150,22 @@ public class StandardParagraph
                    .collect(joining());
     }
 
+    /**
+     * Returns the runs of the paragraph, in document order.
+     *
+     * @return the runs of the paragraph.
+     */
+    List<R> runs() {
+        return runs.stream()
+                   .map(IndexedRun::run)
+                   .toList();
+    }
+
+    /// Returns the paragraph wrapped, a new one for a paragraph read from a content control run.
+    P p() {
+        return p;
+    }
+
     @Override public void apply(Consumer<P> pConsumer) {
         pConsumer.accept(p);
     }
@@ -167,62 +180,111 @@ public class StandardParagraph
     }
 
     private void replaceWithRun(Placeholder placeholder, R replacement) {
+        replaceAll(Map.of(placeholder, replacement));
+    }
+
+    /**
+     * Replaces several placeholders at once.
+     * All the placeholders are located against the current text first, using the position they were found at when it
+     * still matches, then the runs are spliced from the last placeholder to the first, so the positions left to splice
+     * are never shifted. The runs are indexed again only once, at the end.
+     *
+     * @param replacements the runs replacing each placeholder.
+     */
+    @Override public void replaceAll(Map<Placeholder, R> replacements) {
+        if (replacements.isEmpty()) return;
         var text = asString();
-        String full = placeholder.expression();
+        var matches = new ArrayList<Match>(replacements.size());
+        replacements.forEach((placeholder, replacement) -> {
+            int start = locate(text, placeholder, matches);
+            if (start == -1) return; // nothing to replace
+            var end = start + placeholder.expression()
+                                         .length();
+            matches.add(new Match(start, end, replacement));
+        });
+        matches.sort(Comparator.comparingInt(Match::start)
+                               .reversed());
+        for (Match match : matches) splice(match);
+        this.runs = initializeRunList(contents);
+    }
 
-        int matchStartIndex = text.indexOf(full);
-        if (matchStartIndex == -1) {
-            // nothing to replace
-            return;
+    private int locate(String text, Placeholder placeholder, List<Match> located) {
+        var expression = placeholder.expression();
+        if (expression.isEmpty()) return -1;
+        if (placeholder instanceof StandardPlaceholder standardPlaceholder && standardPlaceholder.isPositioned()
+            && standardPlaceholder.run() < runs.size()) {
+            int start = runs.get(standardPlaceholder.run())
+                            .startIndex() + standardPlaceholder.offset();
+            if (text.startsWith(expression, start) && isFree(located, start, start + expression.length()))
+                return start;
         }
-        int matchEndIndex = matchStartIndex + full.length();
-        List<IndexedRun> affectedRuns = getAffectedRuns(matchStartIndex, matchEndIndex);
-
-        boolean singleRun = affectedRuns.size() == 1;
-
-        if (singleRun) {
-            IndexedRun run = affectedRuns.get(0);
-
-            boolean expressionSpansCompleteRun = full.length() == run.length();
-            boolean expressionAtStartOfRun = matchStartIndex == run.startIndex();
-            boolean expressionAtEndOfRun = matchEndIndex == run.endIndex();
-            boolean expressionWithinRun = matchStartIndex > run.startIndex() && matchEndIndex <= run.endIndex();
+        int start = text.indexOf(expression);
+        while (start != -1 && !isFree(located, start, start + expression.length()))
+            start = text.indexOf(expression, start + 1);
+        return start;
+    }
 
-            replacement.setRPr(run.getPr());
+    private static boolean isFree(List<Match> located, int start, int end) {
+        for (Match match : located)
+            if (match.start() < end && start < match.end()) return false;
+        return true;
+    }
 
-            if (expressionSpansCompleteRun) {
-                contents.set(run.indexInParent(), replacement);
-            }
-            else if (expressionAtStartOfRun) {
-                run.replace(matchStartIndex, matchEndIndex, "");
-                contents.add(run.indexInParent(), replacement);
-            }
-            else if (expressionAtEndOfRun) {
-                run.replace(matchStartIndex, matchEndIndex, "");
-                contents.add(run.indexInParent() + 1, replacement);
-            }
-            else if (expressionWithinRun) {
-                int startIndex = run.indexOf(full);
-                int endIndex = startIndex + full.length();
-                var newStartRun = RunUtil.create(run.substring(0, startIndex),
-                        run.run()
-                           .getRPr());
-                var newEndRun = RunUtil.create(run.substring(endIndex),
-                        run.run()
-                           .getRPr());
-                contents.remove(run.indexInParent());
-                contents.addAll(run.indexInParent(), List.of(newStartRun, replacement, newEndRun));
-            }
+    /**
+     * Replaces the text of a single match by its replacement run.
+     * The run holding the start of the match keeps the text before it, so matches further left can still be spliced
+     * with the run index computed before any replacement.
+     */
+    private void splice(Match match) {
+        var firstRun = runs.get(runIndexAt(match.start()));
+        var lastRun = runs.get(runIndexAt(match.end() - 1));
+        var replacement = match.replacement();
+        replacement.setRPr(firstRun.getPr());
+
+        var prefix = RunUtil.getText(firstRun.run())
+                            .substring(0, match.start() - firstRun.startIndex());
+        var suffix = RunUtil.getText(lastRun.run())
+                            .substring(match.end() - lastRun.startIndex());
+        int index = firstRun.indexInParent();
+
+        if (firstRun != lastRun) {
+            RunUtil.setText(firstRun.run(), prefix);
+            RunUtil.setText(lastRun.run(), suffix);
+            // remove all runs between first and last
+            contents.subList(index + 1, lastRun.indexInParent())
+                    .removeIf(R.class::isInstance);
+            // add replacement run between first and last run
+            contents.add(index + 1, replacement);
+        }
+        else if (prefix.isEmpty() && suffix.isEmpty()) {
+            contents.set(index, replacement);
+        }
+        else if (prefix.isEmpty()) {
+            RunUtil.setText(firstRun.run(), suffix);
+            contents.add(index, replacement);
+        }
+        else if (suffix.isEmpty()) {
+            RunUtil.setText(firstRun.run(), prefix);
+            contents.add(index + 1, replacement);
         }
         else {
-            IndexedRun firstRun = affectedRuns.get(0);
-            IndexedRun lastRun = affectedRuns.get(affectedRuns.size() - 1);
-            replacement.setRPr(firstRun.getPr());
-            removeExpression(firstRun, matchStartIndex, matchEndIndex, lastRun, affectedRuns);
-            // add replacement run between first and last run
-            contents.add(firstRun.indexInParent() + 1, replacement);
+            RunUtil.setText(firstRun.run(), prefix);
+            var newEndRun = RunUtil.create(suffix, firstRun.getPr());
+            contents.addAll(index + 1, List.of(replacement, newEndRun));
         }
-        this.runs = initializeRunList(contents);
+    }
+
+    private int runIndexAt(int position) {
+        int low = 0;
+        int high = runs.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            var run = runs.get(middle);
+            if (position < run.startIndex()) high = middle - 1;
+            else if (position >= run.endIndex()) low = middle + 1;
+            else return middle;
+        }
+        throw new OfficeStamperException("No run at position %d of paragraph '%s'".formatted(position, asString()));
     }
 
     private void replaceWithBr(Placeholder placeholder, Br br) {
@@ -238,31 +300,6 @@ public class StandardParagraph
         }
     }
 
-    private List<IndexedRun> getAffectedRuns(int startIndex, int endIndex) {
-        return runs.stream()
-                   .filter(run -> run.isTouchedByRange(startIndex, endIndex))
-                   .toList();
-    }
-
-    private void removeExpression(
-            IndexedRun firstRun,
-            int matchStartIndex,
-            int matchEndIndex,
-            IndexedRun lastRun,
-            List<IndexedRun> affectedRuns
-    ) {
-        // remove the expression from the first run
-        firstRun.replace(matchStartIndex, matchEndIndex, "");
-        // remove all runs between first and last
-        for (IndexedRun run : affectedRuns) {
-            if (!Objects.equals(run, firstRun) && !Objects.equals(run, lastRun)) {
-                contents.remove(run.run());
-            }
-        }
-        // remove the expression from the last run
-        lastRun.replace(matchStartIndex, matchEndIndex, "");
-    }
-
     private static void replaceWithBr(
             Placeholder placeholder, Br br, Text text, ListIterator<Object> runContentIterator
     ) {
@@ -276,6 +313,8 @@ public class StandardParagraph
         }
     }
 
+    private record Match(int start, int end, R replacement) {}
+
     private Comment comment(Placeholder placeholder) {
         var id = new BigInteger(16, RANDOM);
         return StandardComment.create(source.document(), p, placeholder, id);
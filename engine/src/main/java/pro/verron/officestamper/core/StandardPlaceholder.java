@@ -4,12 +4,48 @@ import pro.verron.officestamper.api.Placeholder;
 
 /**
  * Represents an expression with a configured Matcher.
+ * <p>
+ * Placeholders found in a paragraph also record where they start: the index of the run among the runs of the
+ * paragraph, and the offset of the first character within the text of that run. Placeholders built from a plain text
+ * consider it as a single run, and placeholders created from scratch have no position.
+ *
+ * @param matcher    the matcher of the placeholder prefix and suffix.
+ * @param expression the full placeholder text, prefix and suffix included.
+ * @param run        the index of the run the placeholder starts in, or {@link #UNPOSITIONED}.
+ * @param offset     the offset of the placeholder in its starting run, or {@link #UNPOSITIONED}.
  */
 public record StandardPlaceholder(
         Matcher matcher,
-        String expression
+        String expression,
+        int run,
+        int offset
 )
         implements Placeholder {
+
+    /**
+     * The position of a placeholder that was not found in a text.
+     */
+    public static final int UNPOSITIONED = -1;
+
+    /**
+     * Creates a placeholder without position.
+     *
+     * @param matcher    the matcher of the placeholder prefix and suffix.
+     * @param expression the full placeholder text, prefix and suffix included.
+     */
+    public StandardPlaceholder(Matcher matcher, String expression) {
+        this(matcher, expression, UNPOSITIONED, UNPOSITIONED);
+    }
+
+    /**
+     * Tells whether the placeholder knows where it was found.
+     *
+     * @return {@code true} if the run and offset are known.
+     */
+    public boolean isPositioned() {
+        return run != UNPOSITIONED && offset != UNPOSITIONED;
+    }
+
     /**
      * Returns the inner part of the expression
      * by stripping the prefix and suffix.
@@ -0,0 +1,148 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.TraversalUtil;
+import org.docx4j.XmlUtils;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.P;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.ParagraphPlaceholderReplacer;
+import pro.verron.officestamper.api.Placeholder;
+import pro.verron.officestamper.utils.WmlCloner;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A block of elements to repeat, like a table row or some paragraphs, compiled once to be filled for each item.
+ * <p>
+ * Compiling the block copies its elements without the anchors of the comment repeating them, then finds each
+ * paragraph holding placeholders, remembered by its path in the copied elements, with its placeholders and their
+ * positions in its runs. Paragraphs without placeholders are resolved once, at compilation, as their content is the
+ * same for all the items. Filling the stencil for an item then only copies the compiled elements and replaces the
+ * known placeholders of the known paragraphs, with no traversal nor scan of the copy.
+ *
+ * @param <T> the type of the repeated elements.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public final class Stencil<T> {
+
+    private final List<T> elements;
+    private final List<Slot> slots;
+
+    private Stencil(List<T> elements, List<Slot> slots) {
+        this.elements = elements;
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles the elements repeated by a comment.
+     *
+     * @param source    the part holding the elements.
+     * @param elements  the elements to repeat, left untouched.
+     * @param commentId the id of the comment repeating the elements, whose anchors are not repeated.
+     * @param replacer  the replacer resolving the placeholders of the paragraphs.
+     * @param <T>       the type of the repeated elements.
+     *
+     * @return the compiled stencil.
+     */
+    public static <T> Stencil<T> compile(
+            DocxPart source,
+            List<T> elements,
+            BigInteger commentId,
+            ParagraphPlaceholderReplacer replacer
+    ) {
+        var copies = new ArrayList<T>(elements.size());
+        var slots = new ArrayList<Slot>();
+        for (T element : elements) {
+            T copy = WmlCloner.deepCopy(element);
+            if (copy instanceof ContentAccessor contentAccessor)
+                CommentUtil.deleteCommentFromElements(contentAccessor.getContent(), commentId);
+            var path = new ArrayList<Integer>();
+            path.add(copies.size());
+            copies.add(copy);
+            collect(copy, path, source, replacer, slots);
+        }
+        return new Stencil<>(List.copyOf(copies), List.copyOf(slots));
+    }
+
+    /// Walks the children as [TraversalUtil] does, so that a paragraph found by a [org.docx4j.finders.ClassFinder]
+    /// in the elements is found here as well.
+    private static void collect(
+            Object element,
+            List<Integer> path,
+            DocxPart source,
+            ParagraphPlaceholderReplacer replacer,
+            List<Slot> slots
+    ) {
+        if (element instanceof P p) {
+            var paragraph = StandardParagraph.from(source, p);
+            var placeholders = Placeholders.findVariables(paragraph);
+            if (placeholders.isEmpty()) replacer.replaceLineBreaks(source, paragraph);
+            else slots.add(new Slot(toArray(path), placeholders));
+        }
+        var children = TraversalUtil.getChildrenImpl(element);
+        if (children == null) return;
+        for (int i = 0; i < children.size(); i++) {
+            path.add(i);
+            collect(XmlUtils.unwrap(children.get(i)), path, source, replacer, slots);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    static int[] toArray(List<Integer> path) {
+        return path.stream()
+                   .mapToInt(Integer::intValue)
+                   .toArray();
+    }
+
+    /// Finds an element by its path: the index of the element holding it, then the index of each child down to it.
+    static Object locate(List<?> elements, int[] path) {
+        Object current = XmlUtils.unwrap(elements.get(path[0]));
+        for (int i = 1; i < path.length; i++)
+            current = XmlUtils.unwrap(TraversalUtil.getChildrenImpl(current)
+                                                   .get(path[i]));
+        return current;
+    }
+
+    /**
+     * Fills a copy of the stencil for an item: its placeholders are resolved against the item.
+     *
+     * @param source   the part the copy is inserted in.
+     * @param replacer the replacer resolving the placeholders.
+     * @param context  the item.
+     *
+     * @return the filled copies of the repeated elements, in order.
+     */
+    public List<T> fill(DocxPart source, ParagraphPlaceholderReplacer replacer, Object context) {
+        var copies = new ArrayList<T>(elements.size());
+        for (T element : elements) copies.add(WmlCloner.deepCopy(element));
+        // all the paragraphs are located first, as filling a paragraph may move the paragraphs nested in it
+        var paragraphs = new ArrayList<P>(slots.size());
+        for (Slot slot : slots) paragraphs.add(slot.locate(copies));
+        for (int i = 0; i < slots.size(); i++) {
+            var paragraph = StandardParagraph.from(source, paragraphs.get(i));
+            replacer.resolvePlaceholders(source,
+                    paragraph,
+                    slots.get(i)
+                         .placeholders(),
+                    context);
+        }
+        return copies;
+    }
+
+    /**
+     * A paragraph holding placeholders.
+     *
+     * @param path         the index of the element holding the paragraph, then the index of each child down to it.
+     * @param placeholders the placeholders of the paragraph.
+     */
+    private record Slot(int[] path, List<Placeholder> placeholders) {
+        P locate(List<?> elements) {
+            return (P) Stencil.locate(elements, path);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.openpackaging.contenttype.ContentType;
+import org.docx4j.openpackaging.exceptions.InvalidFormatException;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.relationships.Namespaces;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.utils.ThrowingSupplier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An image part whose content is not kept in memory, but read from its source each time it is needed, usually once
+ * when the document is saved.
+ * <p>
+ * Only the header of the image is read when the part is created, to get its type, see {@link ImageHeader}. Images in
+ * other formats are read in memory and left to docx4j, see {@link ImageRegistry#createImagePart}.
+ * <p>
+ * Saving a document with {@link DocumentUtil#save} copies the content from its source straight into the saved
+ * document, see {@link #writeDataToOutputStream(OutputStream)}. docx4j's own save reads the content whole instead,
+ * through {@link #getBytes()}.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public final class StreamedImagePart
+        extends BinaryPartAbstractImage {
+
+    private final ThrowingSupplier<? extends InputStream> source;
+
+    private StreamedImagePart(PartName partName, String mimeType, ThrowingSupplier<? extends InputStream> source)
+            throws InvalidFormatException {
+        super(partName);
+        setContentType(new ContentType(mimeType));
+        setRelationshipType(Namespaces.IMAGE);
+        this.source = source;
+    }
+
+    /**
+     * Creates an image part reading its content from the given source, and adds it to the document with a
+     * relationship from the given part.
+     *
+     * @param document the document to add the image part to.
+     * @param part     the part referencing the image.
+     * @param hash     the hash of the image content, to reuse the header already probed for the same image.
+     * @param source   opens a new stream on the image content, each time it is called.
+     *
+     * @return the image part, streamed unless the format of the image is unknown to the header probe.
+     *
+     * @throws OfficeStamperException if the image cannot be read or added to the document.
+     */
+    public static BinaryPartAbstractImage create(
+            OpcPackage document,
+            Part part,
+            String hash,
+            ThrowingSupplier<? extends InputStream> source
+    ) {
+        try {
+            var header = ImageHeader.probe(hash, source);
+            if (header.isEmpty()) try (var in = source.get()) {
+                return ImageRegistry.createImagePart(document, part, hash, in.readAllBytes());
+            }
+            var mimeType = header.get()
+                                 .mimeType();
+            var relationshipId = part.getRelationshipsPart(true)
+                                     .getNextId();
+            var partName = createImageName(document, part, relationshipId, ImageRegistry.extension(mimeType));
+            var imagePart = new StreamedImagePart(new PartName(partName), mimeType, source);
+            part.addTargetPart(imagePart, relationshipId);
+            return imagePart;
+        } catch (OfficeStamperException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OfficeStamperException("Failed to create an ImagePart", e);
+        }
+    }
+
+    /**
+     * The content is available at any time from the source, this part never needs to be loaded.
+     *
+     * @return always true.
+     */
+    @Override
+    public boolean isLoaded() {
+        return true;
+    }
+
+    /**
+     * Reads the whole content of the image from its source.
+     *
+     * @return the content of the image.
+     */
+    @Override
+    public byte[] getBytes() {
+        try (var in = source.get()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+
+    /**
+     * Reads the whole content of the image from its source.
+     *
+     * @return a buffer over the content of the image.
+     */
+    @Override
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(getBytes());
+    }
+
+    /**
+     * Copies the content of the image from its source, without buffering it whole. Used when the document is saved
+     * with {@link DocumentUtil#save}.
+     *
+     * @param out the stream to write the content to.
+     *
+     * @throws IOException if the content cannot be read or written.
+     */
+    @Override
+    public void writeDataToOutputStream(OutputStream out)
+            throws IOException {
+        try (var in = source.get()) {
+            in.transferTo(out);
+        }
+    }
+}
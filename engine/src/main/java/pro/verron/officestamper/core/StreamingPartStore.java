@@ -0,0 +1,234 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.contenttype.ContentTypeManager;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.io3.Save;
+import org.docx4j.openpackaging.io3.stores.PartStore;
+import org.docx4j.openpackaging.io3.stores.ZipPartStore;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.openpackaging.parts.CustomXmlDataStoragePart;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.openpackaging.parts.Part;
+import org.docx4j.openpackaging.parts.PartName;
+import org.docx4j.openpackaging.parts.WordprocessingML.AltChunkType;
+import org.docx4j.openpackaging.parts.WordprocessingML.AlternativeFormatInputPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.EmbeddedPackagePart;
+import org.docx4j.openpackaging.parts.WordprocessingML.ImageGifPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.ImageJpegPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.ImagePngPart;
+import org.docx4j.openpackaging.parts.WordprocessingML.OleObjectBinaryPart;
+import org.docx4j.openpackaging.parts.XmlPart;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/// The part store a document is saved through, writing the parts the way docx4j's [ZipPartStore] does, except for
+/// the streamed images, see [StreamedImagePart], copied from their source straight into their zip entry.
+///
+/// docx4j's store reads each binary part whole in a byte array before writing it, so a streamed image would be held
+/// in memory at save time. Here, streamed images are written with compression turned off, as they usually are
+/// compressed already, and their entry needs neither their size nor their checksum beforehand. The parts the stamp
+/// never loaded are copied from the store the document was loaded from.
+///
+/// @author Joseph Verron
+/// @version ${version}
+/// @since 2.7.0
+final class StreamingPartStore
+        implements PartStore {
+
+    private static final Set<AltChunkType> WORD_ALT_CHUNKS = Set.of(AltChunkType.WordprocessingML,
+            AltChunkType.OfficeWordTemplate,
+            AltChunkType.OfficeWordMacroEnabled,
+            AltChunkType.OfficeWordMacroEnabledTemplate);
+
+    private PartStore source;
+    private ZipOutputStream zip;
+
+    private StreamingPartStore() {
+    }
+
+    /// Saves a document as a zip package.
+    ///
+    /// @param document the document to save.
+    /// @param out      the stream to write the document to, closed once the document is written.
+    ///
+    /// @throws Docx4JException if the document cannot be saved.
+    static void save(OpcPackage document, OutputStream out)
+            throws Docx4JException {
+        new Save(document, new StreamingPartStore()).save(out);
+    }
+
+    private static String entryName(PartName partName) {
+        return partName.getName()
+                       .substring(1);
+    }
+
+    /// The parts docx4j stores without compression, mostly because their content is already compressed.
+    private static boolean isStored(Part part) {
+        if (part instanceof AlternativeFormatInputPart altChunk)
+            return WORD_ALT_CHUNKS.contains(altChunk.getAltChunkType());
+        return part instanceof OleObjectBinaryPart || part instanceof EmbeddedPackagePart
+               || part instanceof ImagePngPart || part instanceof ImageJpegPart || part instanceof ImageGifPart;
+    }
+
+    @Override
+    public void setSourcePartStore(PartStore partStore) {
+        this.source = partStore;
+    }
+
+    @Override
+    public InputStream loadPart(String partName)
+            throws Docx4JException {
+        return source.loadPart(partName);
+    }
+
+    @Override
+    public long getPartSize(String partName)
+            throws Docx4JException {
+        return source.getPartSize(partName);
+    }
+
+    @Override
+    public void rename(PartName oldName, PartName newName) {
+        source.rename(oldName, newName);
+    }
+
+    @Override
+    public void setOutputStream(OutputStream outputStream) {
+        this.zip = new ZipOutputStream(outputStream);
+    }
+
+    @Override
+    public void saveContentTypes(ContentTypeManager contentTypeManager)
+            throws Docx4JException {
+        try {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            contentTypeManager.marshal(zip);
+            zip.closeEntry();
+        } catch (Exception e) {
+            throw new Docx4JException("Error marshalling Content_Types", e);
+        }
+    }
+
+    @Override
+    public void saveJaxbXmlPart(JaxbXmlPart part)
+            throws Docx4JException {
+        var partName = part.getPartName();
+        var name = "_rels/.rels".equals(partName.getName()) ? partName.getName() : entryName(partName);
+        try {
+            zip.putNextEntry(new ZipEntry(name));
+            if (part.isUnmarshalled()) part.marshal(zip);
+            else copyFromSource(name);
+            zip.closeEntry();
+        } catch (Exception e) {
+            throw new Docx4JException("Failed to put " + partName, e);
+        }
+    }
+
+    @Override
+    public void saveCustomXmlDataStoragePart(CustomXmlDataStoragePart part)
+            throws Docx4JException {
+        try {
+            zip.putNextEntry(new ZipEntry(entryName(part.getPartName())));
+            part.getData()
+                .writeDocument(zip);
+            zip.closeEntry();
+        } catch (Exception e) {
+            throw new Docx4JException("Failed to put " + part.getPartName(), e);
+        }
+    }
+
+    @Override
+    public void saveXmlPart(XmlPart part)
+            throws Docx4JException {
+        try {
+            zip.putNextEntry(new ZipEntry(entryName(part.getPartName())));
+            XmlUtils.getTransformerFactory()
+                    .newTransformer()
+                    .transform(new DOMSource(part.getDocument()), new StreamResult(zip));
+            zip.closeEntry();
+        } catch (Exception e) {
+            throw new Docx4JException("Failed to put " + part.getPartName(), e);
+        }
+    }
+
+    @Override
+    public void saveBinaryPart(Part part)
+            throws Docx4JException {
+        var name = entryName(part.getPartName());
+        try {
+            if (part instanceof StreamedImagePart image) saveStreamed(name, image);
+            else saveBuffered(name, part);
+        } catch (IOException e) {
+            throw new Docx4JException("Failed to put binary part", e);
+        }
+    }
+
+    private void saveStreamed(String name, StreamedImagePart image)
+            throws IOException {
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        zip.putNextEntry(new ZipEntry(name));
+        image.writeDataToOutputStream(zip);
+        zip.closeEntry();
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /// Writes a binary part like docx4j does: the parts already compressed are stored as is, with their size and
+    /// checksum computed from their content.
+    private void saveBuffered(String name, Part part)
+            throws IOException, Docx4JException {
+        var binaryPart = (BinaryPart) part;
+        var bytes = binaryPart.isLoaded() ? binaryPart.getBytes() : readFromSource(name);
+        var entry = new ZipEntry(name);
+        if (isStored(part)) {
+            var crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    private byte[] readFromSource(String name)
+            throws IOException, Docx4JException {
+        try (var in = source.loadPart(name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void copyFromSource(String name)
+            throws IOException, Docx4JException {
+        try (var in = source.loadPart(name)) {
+            in.transferTo(zip);
+        }
+    }
+
+    @Override
+    public void finishSave()
+            throws Docx4JException {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            throw new Docx4JException("Error closing zip file", e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // nothing is kept between saves
+    }
+}
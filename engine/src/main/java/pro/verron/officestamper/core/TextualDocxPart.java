@@ -5,10 +5,10 @@ import org.docx4j.openpackaging.parts.Part;
 import org.docx4j.openpackaging.parts.relationships.RelationshipsPart;
 import org.docx4j.relationships.Relationship;
 import org.docx4j.wml.*;
+import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.Paragraph;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -18,6 +18,7 @@ public final class TextualDocxPart
     private final WordprocessingMLPackage document;
     private final Part part;
     private final ContentAccessor contentAccessor;
+    @Nullable private ElementIndex index;
 
     public TextualDocxPart(WordprocessingMLPackage document) {
         this(document, document.getMainDocumentPart(), document.getMainDocumentPart());
@@ -33,21 +34,32 @@ public final class TextualDocxPart
 
 
     public Stream<Paragraph> streamParagraphs() {
-        return Stream.concat(DocumentUtil.streamObjectElements(this, P.class)
-                                         .map(p -> StandardParagraph.from(this, p)),
-                DocumentUtil.streamObjectElements(this, SdtRun.class)
-                                    .map(SdtRun::getSdtContent)
-                                    .filter(CTSdtContentRun.class::isInstance)
-                                    .map(CTSdtContentRun.class::cast)
-                                    .map(paragraph -> StandardParagraph.from(this, paragraph)));
+        var elements = index();
+        return Stream.concat(elements.paragraphs()
+                                     .stream()
+                                     .map(p -> StandardParagraph.from(this, p)),
+                elements.sdtRuns()
+                        .stream()
+                        .map(SdtRun::getSdtContent)
+                        .filter(CTSdtContentRun.class::isInstance)
+                        .map(CTSdtContentRun.class::cast)
+                        .map(paragraph -> StandardParagraph.from(this, paragraph)));
     }
 
     @Override public Stream<R> streamRun() {
-        return DocumentUtil.streamObjectElements(this, P.class)
-                           .map(P::getContent)
-                           .flatMap(Collection::stream)
-                           .filter(R.class::isInstance)
-                           .map(R.class::cast);
+        return index().paragraphRuns()
+                      .stream();
+    }
+
+    @Override public void invalidate() {
+        index = null;
+    }
+
+    /// Returns the index of the paragraphs, SDT runs and paragraph runs of the content, built on first access, and
+    /// again after each [#invalidate()].
+    private ElementIndex index() {
+        if (index == null) index = ElementIndex.of(this::content);
+        return index;
     }
 
 
@@ -0,0 +1,72 @@
+package pro.verron.officestamper.core;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.utils.TraversalUtilVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pre- or post-processor whose work is a traversal of the document collecting elements, followed by changes to the
+ * collected elements, so that it can share its traversal with other such processors.
+ * <p>
+ * Consecutive visiting processors are run by {@link #processAll}: each one prepares a {@link Visit} of the document,
+ * the visitors of all the visits run in a single traversal of the document, then the changes of each visit are
+ * applied in the order of the processors. The visitors of a processor thus see the document as it was before the
+ * changes of the processors before it, so they should collect the elements to change, and leave it to the changes to
+ * check them against the document as it is then.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public interface VisitingProcessor {
+
+    /**
+     * Processes a document with the given processors, in a single traversal of the document.
+     *
+     * @param document   the document to process.
+     * @param processors the processors, in the order their changes are applied.
+     */
+    static void processAll(WordprocessingMLPackage document, List<? extends VisitingProcessor> processors) {
+        var visits = new ArrayList<Visit>(processors.size());
+        var visitors = new ArrayList<TraversalUtilVisitor<?>>();
+        for (VisitingProcessor processor : processors) {
+            var visit = processor.prepare(document);
+            visits.add(visit);
+            visitors.addAll(visit.visitors());
+        }
+        DocumentUtil.visitDocument(document, visitors);
+        for (Visit visit : visits) visit.changes()
+                                        .run();
+    }
+
+    /**
+     * Prepares the processing of a document, without changing it yet.
+     *
+     * @param document the document to process.
+     *
+     * @return the visitors collecting the elements to change, and the changes to apply once they are collected.
+     */
+    Visit prepare(WordprocessingMLPackage document);
+
+    /**
+     * The processing of a document by a visiting processor.
+     *
+     * @param visitors the visitors collecting the elements to change, during the shared traversal.
+     * @param changes  the changes to the collected elements, applied once the traversal is done.
+     */
+    record Visit(List<? extends TraversalUtilVisitor<?>> visitors, Runnable changes) {
+        /**
+         * Creates the processing of a document with a single visitor.
+         *
+         * @param visitor the visitor collecting the elements to change.
+         * @param changes the changes to the collected elements.
+         *
+         * @return the visit.
+         */
+        public static Visit of(TraversalUtilVisitor<?> visitor, Runnable changes) {
+            return new Visit(List.of(visitor), changes);
+        }
+    }
+}
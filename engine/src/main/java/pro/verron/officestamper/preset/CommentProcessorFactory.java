@@ -80,6 +80,18 @@ public class CommentProcessorFactory {
         ///
         /// @param objects objects serving as evaluation context seeding a new copy.
         void repeatTableRow(@Nullable Iterable<Object> objects);
+
+        /// Mark a table row to be generated once for each element in the passed-in iterable, lazily, while the
+        /// document is saved. The generated rows are written out one at a time instead of being kept in the document,
+        /// so very large iterables only need the memory of a single row. The iterable is iterated once, on save, so it
+        /// may be single-use; postprocessors see the template row instead of the generated ones, and the expressions
+        /// of the row cannot add new images to the document.
+        /// Processors that cannot generate rows lazily repeat them as [#repeatTableRow(Iterable)] does.
+        ///
+        /// @param objects objects serving as evaluation context seeding each generated row.
+        default void streamTableRow(@Nullable Iterable<Object> objects) {
+            repeatTableRow(objects);
+        }
     }
 
     /// Interface for processors used to delete paragraphs or tables from the document, depending on condition.
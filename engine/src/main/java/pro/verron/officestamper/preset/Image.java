@@ -1,20 +1,29 @@
 package pro.verron.officestamper.preset;
 
 import org.apache.commons.io.IOUtils;
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.docx4j.openpackaging.parts.Part;
-import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
 import org.docx4j.wml.R;
+import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.core.ImageRegistry;
+import pro.verron.officestamper.core.StreamedImagePart;
+import pro.verron.officestamper.utils.ThrowingSupplier;
 import pro.verron.officestamper.utils.WmlFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * This class describes an image which will be inserted into a document.
+ * <p>
+ * An image either holds its content in memory, or reads it lazily from a file or a stream source: such images are
+ * not buffered, only their header is read when inserted, and their content is streamed when the document is saved.
+ * Lazy images in other formats than PNG, JPEG, GIF and BMP are read in memory when inserted.
  *
  * @author Joseph Verron
  * @author Romster
@@ -23,8 +32,10 @@ import java.io.InputStream;
  */
 public final class Image {
 
-    private final byte[] imageBytes;
+    @Nullable private final byte[] imageBytes;
+    @Nullable private final ThrowingSupplier<? extends InputStream> source;
     private Integer maxWidth;
+    @Nullable private volatile String hash;
 
     /**
      * <p>Constructor for Image.</p>
@@ -38,6 +49,7 @@ public final class Image {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         IOUtils.copy(in, out);
         this.imageBytes = out.toByteArray();
+        this.source = null;
     }
 
     /**
@@ -53,6 +65,7 @@ public final class Image {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         IOUtils.copy(in, out);
         this.imageBytes = out.toByteArray();
+        this.source = null;
         this.maxWidth = maxWidth;
     }
 
@@ -63,6 +76,7 @@ public final class Image {
      */
     public Image(byte[] imageBytes) {
         this.imageBytes = imageBytes;
+        this.source = null;
     }
 
     /**
@@ -73,14 +87,55 @@ public final class Image {
      */
     public Image(byte[] imageBytes, Integer maxWidth) {
         this.imageBytes = imageBytes;
+        this.source = null;
+        this.maxWidth = maxWidth;
+    }
+
+    /**
+     * Creates an image read lazily from a file, which must stay available until the document is saved.
+     *
+     * @param path the file of the image.
+     */
+    public Image(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * Creates an image read lazily from a file, which must stay available until the document is saved.
+     *
+     * @param path     the file of the image.
+     * @param maxWidth max width of the image in twip, it can be null.
+     */
+    public Image(Path path, @Nullable Integer maxWidth) {
+        this(() -> Files.newInputStream(path), maxWidth);
+    }
+
+    /**
+     * Creates an image read lazily from a source of streams, which must stay available until the document is saved.
+     *
+     * @param source opens a new stream on the content of the image each time it is called.
+     */
+    public Image(ThrowingSupplier<? extends InputStream> source) {
+        this(source, null);
+    }
+
+    /**
+     * Creates an image read lazily from a source of streams, which must stay available until the document is saved.
+     *
+     * @param source   opens a new stream on the content of the image each time it is called.
+     * @param maxWidth max width of the image in twip, it can be null.
+     */
+    public Image(ThrowingSupplier<? extends InputStream> source, @Nullable Integer maxWidth) {
+        this.imageBytes = null;
+        this.source = source;
         this.maxWidth = maxWidth;
     }
 
     /**
      * Creates a new run with the provided image and associated metadata.
      * <p>
-     * TODO: adding the same image twice will put the image twice into the docx-zip file.
-     *  We should make the second addition of the same image a reference instead.
+     * The image is stored once per document: adding an image with the same content again references the existing
+     * image part, see {@link ImageRegistry}.
      *
      * @param document     The document part where the image will be inserted.
      * @param filenameHint A hint for the filename to be used.
@@ -91,13 +146,32 @@ public final class Image {
      * @throws OfficeStamperException If there is an error creating the image part
      */
     public R newRun(DocxPart document, String filenameHint, String altText) {
-        WordprocessingMLPackage wordprocessingMLPackage = document.document();
-        Part part = document.part();
-        try {
-            var image = BinaryPartAbstractImage.createImagePart(wordprocessingMLPackage, part, imageBytes);
-            return WmlFactory.newRun(maxWidth, image, filenameHint, altText);
-        } catch (Exception e) {
-            throw new OfficeStamperException("Failed to create an ImagePart", e);
+        var registry = ImageRegistry.of(document.document());
+        var hash = hash();
+        var reference = imageBytes != null
+                ? registry.reference(document.part(), hash, imageBytes)
+                : registry.reference(document.part(),
+                        hash,
+                        (pkg, part) -> StreamedImagePart.create(pkg, part, hash, requireNonNull(source)));
+        return WmlFactory.newRun(maxWidth,
+                reference.part(),
+                reference.imageInfo(),
+                reference.relationshipId(),
+                filenameHint,
+                altText);
+    }
+
+    private String hash() {
+        var value = hash;
+        if (value == null) hash = value = imageBytes != null ? ImageRegistry.hash(imageBytes) : hashSource();
+        return value;
+    }
+
+    private String hashSource() {
+        try (var in = requireNonNull(source).get()) {
+            return ImageRegistry.hash(in);
+        } catch (IOException e) {
+            throw new OfficeStamperException(e);
         }
     }
 
@@ -122,6 +196,11 @@ public final class Image {
      * Drawing
      */
     @Deprecated(since = "2.6", forRemoval = true) public byte[] getImageBytes() {
-        return imageBytes;
+        if (imageBytes != null) return imageBytes;
+        try (var in = requireNonNull(source).get()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new OfficeStamperException(e);
+        }
     }
 }
@@ -1,9 +1,12 @@
 package pro.verron.officestamper.preset;
 
+import pro.verron.officestamper.api.DocxPartStamper;
 import pro.verron.officestamper.api.OfficeStamperConfiguration;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.api.ParagraphPlaceholderReplacer;
 import pro.verron.officestamper.core.DocxStamper;
 import pro.verron.officestamper.core.DocxStamperConfiguration;
+import pro.verron.officestamper.core.PlaceholderReplacer;
 import pro.verron.officestamper.preset.CommentProcessorFactory.*;
 import pro.verron.officestamper.preset.processors.displayif.DisplayIfProcessor;
 import pro.verron.officestamper.preset.processors.repeat.RepeatProcessor;
@@ -14,6 +17,7 @@ import pro.verron.officestamper.preset.processors.table.TableResolver;
 
 import java.time.temporal.TemporalAccessor;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static java.time.format.DateTimeFormatter.*;
 import static java.time.format.FormatStyle.valueOf;
@@ -60,8 +64,9 @@ public class OfficeStamperConfigurations {
         configuration.addCommentProcessor(IParagraphRepeatProcessor.class, ParagraphRepeatProcessor::newInstance);
         configuration.addCommentProcessor(IRepeatDocPartProcessor.class,
                 pr -> RepeatDocPartProcessor.newInstance(pr,
-                        (template, context, output) -> new DocxStamper(configuration)
-                                .stamp(template, context, output)));
+                        partStamper(pr, configuration),
+                        configuration.getRepeatDocPartExecutor()
+                                     .orElse(null)));
         configuration.addCommentProcessor(ITableResolver.class, TableResolver::newInstance);
         configuration.addCommentProcessor(IDisplayIfProcessor.class, DisplayIfProcessor::newInstance);
         configuration.addCommentProcessor(IReplaceWithProcessor.class, ReplaceWithProcessor::newInstance);
@@ -135,4 +140,15 @@ public class OfficeStamperConfigurations {
         configuration.resetCommentProcessors();
         return configuration;
     }
+
+    /**
+     * Supplies the stamper running the given placeholder replacer, so that repeated document parts are stamped with
+     * its expression parser and caches. A stamper is only built from the configuration for other replacers.
+     */
+    private static Supplier<DocxPartStamper> partStamper(
+            ParagraphPlaceholderReplacer placeholderReplacer, OfficeStamperConfiguration configuration
+    ) {
+        if (placeholderReplacer instanceof PlaceholderReplacer replacer) return replacer::partStamper;
+        return () -> new DocxStamper(configuration);
+    }
 }
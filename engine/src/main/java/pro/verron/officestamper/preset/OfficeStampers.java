@@ -2,6 +2,7 @@ package pro.verron.officestamper.preset;
 
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import pro.verron.officestamper.api.CompiledTemplate;
 import pro.verron.officestamper.api.OfficeStamperConfiguration;
 import pro.verron.officestamper.api.OfficeStamperException;
 import pro.verron.officestamper.api.StreamStamper;
@@ -53,6 +54,35 @@ public class OfficeStampers {
         );
     }
 
+    /**
+     * Compiles the given .docx template once with the default configuration, so it can be stamped many times.
+     * Also adds the {@link Preprocessors#removeLanguageProof()} and {@link Preprocessors#mergeSimilarRuns()}
+     * preprocessors, which run during the compilation only.
+     *
+     * @param template the .docx template to compile
+     *
+     * @return an immutable compiled template
+     */
+    public static CompiledTemplate<WordprocessingMLPackage> compile(InputStream template) {
+        return compile(template, OfficeStamperConfigurations.standardWithPreprocessing());
+    }
+
+    /**
+     * Compiles the given .docx template once with the specified {@link OfficeStamperConfiguration}, so it can be
+     * stamped many times. Loading, preprocessing and template analysis happen here, not on each stamp.
+     *
+     * @param template the .docx template to compile
+     * @param config   the configuration for the docx stamper
+     *
+     * @return an immutable compiled template
+     */
+    public static CompiledTemplate<WordprocessingMLPackage> compile(
+            InputStream template,
+            OfficeStamperConfiguration config
+    ) {
+        return new DocxStamper(config).compile(template);
+    }
+
     private static WordprocessingMLPackage loadWord(InputStream is) {
         try {
             return WordprocessingMLPackage.load(is);
@@ -1,22 +1,45 @@
 package pro.verron.officestamper.preset.postprocessors;
 
 import org.docx4j.utils.TraversalUtilVisitor;
+import org.docx4j.wml.CTEndnotes;
+import org.docx4j.wml.CTFootnotes;
+import org.docx4j.wml.CTFtnEdn;
 import org.docx4j.wml.CTFtnEdnRef;
+import org.jvnet.jaxb2_commons.ppp.Child;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 public class NoteRefsVisitor
         extends TraversalUtilVisitor<CTFtnEdnRef> {
-    private final SortedSet<BigInteger> ids = new TreeSet<>();
+    private final List<CTFtnEdnRef> refs = new ArrayList<>();
 
     @Override
     public void apply(CTFtnEdnRef element) {
-        ids.add(element.getId());
+        refs.add(element);
     }
 
+    /// The ids of the notes referenced when the document was visited, without the references held by a note removed
+    /// since, as when visiting the document again, in case the traversal was shared with a processor removing notes.
     public SortedSet<BigInteger> referencedNoteIds() {
+        var ids = new TreeSet<BigInteger>();
+        for (CTFtnEdnRef ref : refs)
+            if (!inRemovedNote(ref)) ids.add(ref.getId());
         return ids;
     }
+
+    private static boolean inRemovedNote(Child child) {
+        var parent = child.getParent();
+        while (parent instanceof Child ancestor && !(parent instanceof CTFtnEdn)) parent = ancestor.getParent();
+        if (!(parent instanceof CTFtnEdn note)) return false;
+        List<CTFtnEdn> notes;
+        if (note.getParent() instanceof CTFootnotes footnotes) notes = footnotes.getFootnote();
+        else if (note.getParent() instanceof CTEndnotes endnotes) notes = endnotes.getEndnote();
+        else return false;
+        return notes.stream()
+                    .noneMatch(n -> n == note);
+    }
 }
@@ -5,22 +5,31 @@ import org.docx4j.openpackaging.parts.WordprocessingML.EndnotesPart;
 import org.docx4j.wml.CTEndnotes;
 import org.docx4j.wml.CTFtnEdn;
 import pro.verron.officestamper.api.PostProcessor;
+import pro.verron.officestamper.core.VisitingProcessor;
 import pro.verron.officestamper.preset.postprocessors.NoteRefsVisitor;
 import pro.verron.officestamper.utils.WmlUtils;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.docx4j.wml.STFtnEdn.NORMAL;
 import static pro.verron.officestamper.api.OfficeStamperException.throwing;
-import static pro.verron.officestamper.core.DocumentUtil.visitDocument;
 
 public class RemoveOrphanedEndnotesProcessor
-        implements PostProcessor {
+        implements PostProcessor, VisitingProcessor {
     @Override
     public void process(WordprocessingMLPackage document) {
+        VisitingProcessor.processAll(document, List.of(this));
+    }
+
+    @Override
+    public Visit prepare(WordprocessingMLPackage document) {
         var visitor = new NoteRefsVisitor();
-        visitDocument(document, visitor);
+        return Visit.of(visitor, () -> removeOrphans(document, visitor));
+    }
+
+    private static void removeOrphans(WordprocessingMLPackage document, NoteRefsVisitor visitor) {
         var referencedNoteIds = visitor.referencedNoteIds();
         var mainDocumentPart = document.getMainDocumentPart();
 
@@ -4,20 +4,32 @@ import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.ProofErr;
 import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.core.VisitingProcessor;
 
-import static pro.verron.officestamper.core.DocumentUtil.visitDocument;
+import java.util.List;
 
 public class RemoveProofErrors
-        implements PreProcessor {
+        implements PreProcessor, VisitingProcessor {
 
     /**
      * {@inheritDoc}
      */
     @Override
     public void process(WordprocessingMLPackage document) {
+        VisitingProcessor.processAll(document, List.of(this));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Visit prepare(WordprocessingMLPackage document) {
         var visitor = new ProofErrVisitor();
-        visitDocument(document, visitor);
-        for (ProofErr proofErr : visitor.getProofErrs()) {
+        return Visit.of(visitor, () -> remove(visitor.getProofErrs()));
+    }
+
+    private static void remove(List<ProofErr> proofErrs) {
+        for (ProofErr proofErr : proofErrs) {
             var proofErrParent = proofErr.getParent();
             if (proofErrParent instanceof ContentAccessor parent) {
                 var parentContent = parent.getContent();
@@ -4,23 +4,29 @@ import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.wml.ParaRPr;
 import org.docx4j.wml.RPr;
 import pro.verron.officestamper.api.PreProcessor;
+import pro.verron.officestamper.core.VisitingProcessor;
 
-import static pro.verron.officestamper.core.DocumentUtil.visitDocument;
+import java.util.List;
 
 public class RemoveLang
-        implements PreProcessor {
+        implements PreProcessor, VisitingProcessor {
 
     @Override
     public void process(WordprocessingMLPackage document) {
+        VisitingProcessor.processAll(document, List.of(this));
+    }
+
+    @Override
+    public Visit prepare(WordprocessingMLPackage document) {
         var visitor = new RprLangVisitor();
-        visitDocument(document, visitor);
-        for (RPr rPr : visitor.getrPrs()) {
-            rPr.setLang(null);
-        }
         var visitor2 = new PprLangVisitor();
-        visitDocument(document, visitor2);
-        for (ParaRPr rPr : visitor2.getrPrs()) {
-            rPr.setLang(null);
-        }
+        return new Visit(List.of(visitor, visitor2), () -> {
+            for (RPr rPr : visitor.getrPrs()) {
+                rPr.setLang(null);
+            }
+            for (ParaRPr rPr : visitor2.getrPrs()) {
+                rPr.setLang(null);
+            }
+        });
     }
 }
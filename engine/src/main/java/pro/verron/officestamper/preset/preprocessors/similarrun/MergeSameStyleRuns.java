@@ -4,32 +4,53 @@ import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.R;
 import pro.verron.officestamper.api.PreProcessor;
-import pro.verron.officestamper.core.DocumentUtil;
+import pro.verron.officestamper.core.VisitingProcessor;
 
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 
 public class MergeSameStyleRuns
-        implements PreProcessor {
+        implements PreProcessor, VisitingProcessor {
 
     /**
      * {@inheritDoc}
      */
     @Override
     public void process(WordprocessingMLPackage document) {
+        VisitingProcessor.processAll(document, List.of(this));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Visit prepare(WordprocessingMLPackage document) {
         var visitor = new SimilarRunVisitor();
-        DocumentUtil.visitDocument(document, visitor);
-        for (List<R> similarStyleRuns : visitor.getSimilarStyleRuns()) {
-            R firstRun = similarStyleRuns.get(0);
-            var runContent = firstRun.getContent();
-            var firstRunContent = new LinkedHashSet<>(runContent);
-            var firstRunParentContent = ((ContentAccessor) firstRun.getParent()).getContent();
-            for (R r : similarStyleRuns.subList(1, similarStyleRuns.size())) {
-                firstRunParentContent.remove(r);
-                firstRunContent.addAll(r.getContent());
+        return Visit.of(visitor, () -> {
+            for (ContentAccessor runParent : visitor.getRunParents()) {
+                merge(runParent.getContent());
+            }
+        });
+    }
+
+    /// Merges each sequence of consecutive runs with the same style into its first run, in a single pass compacting
+    /// the content in place.
+    private static void merge(List<Object> content) {
+        R merging = null;
+        int size = content.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            var element = content.get(i);
+            if (merging != null && element instanceof R run && Objects.equals(run.getRPr(), merging.getRPr())) {
+                merging.getContent()
+                       .addAll(run.getContent());
+                continue;
             }
-            runContent.clear();
-            runContent.addAll(firstRunContent);
+            merging = element instanceof R run ? run : null;
+            if (kept != i) content.set(kept, element);
+            kept++;
         }
+        if (kept < size) content.subList(kept, size)
+                                .clear();
     }
 }
@@ -1,34 +1,30 @@
 package pro.verron.officestamper.preset.preprocessors.similarrun;
 
 import org.docx4j.utils.TraversalUtilVisitor;
+import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.R;
-import org.docx4j.wml.RPr;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 
+/// Finds the contents holding runs, each one only once however many runs it holds, so that their runs can be merged
+/// in a single pass over each content.
 public class SimilarRunVisitor
         extends TraversalUtilVisitor<R> {
 
-    private final List<List<R>> similarStyleRuns = new ArrayList<>();
+    private final Set<ContentAccessor> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<ContentAccessor> runParents = new ArrayList<>();
 
-    public List<List<R>> getSimilarStyleRuns() {
-        return similarStyleRuns;
+    public List<ContentAccessor> getRunParents() {
+        return runParents;
     }
 
     @Override
     public void apply(R element, Object parent, List<Object> siblings) {
-        RPr rPr = element.getRPr();
-        int currentIndex = siblings.indexOf(element);
-        List<R> similarStyleConcurrentRun = siblings
-                .stream()
-                .skip(currentIndex)
-                .takeWhile(o -> o instanceof R run && Objects.equals(run.getRPr(), rPr))
-                .map(R.class::cast)
-                .toList();
-
-        if (similarStyleConcurrentRun.size() > 1)
-            similarStyleRuns.add(similarStyleConcurrentRun);
+        if (parent instanceof ContentAccessor runParent && visited.add(runParent))
+            runParents.add(runParent);
     }
 }
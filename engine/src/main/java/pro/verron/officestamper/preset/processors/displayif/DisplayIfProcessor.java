@@ -24,7 +24,6 @@ public class DisplayIfProcessor
         extends AbstractCommentProcessor
         implements CommentProcessorFactory.IDisplayIfProcessor {
 
-    private List<Paragraph> paragraphsToBeRemoved = new ArrayList<>();
     private List<Child> elementsToBeRemoved = new ArrayList<>();
 
     private DisplayIfProcessor(ParagraphPlaceholderReplacer placeholderReplacer) {
@@ -42,14 +41,12 @@ public class DisplayIfProcessor
 
     @Override
     public void commitChanges(DocxPart source) {
-        paragraphsToBeRemoved.forEach(Paragraph::remove);
-        elementsToBeRemoved.forEach(WmlUtils::remove);
+        WmlUtils.removeAll(elementsToBeRemoved);
     }
 
 
     @Override
     public void reset() {
-        paragraphsToBeRemoved = new ArrayList<>();
         elementsToBeRemoved = new ArrayList<>();
     }
 
@@ -61,7 +58,8 @@ public class DisplayIfProcessor
     @Override
     public void displayParagraphIf(@Nullable Boolean condition) {
         if (Boolean.TRUE.equals(condition)) return;
-        paragraphsToBeRemoved.add(this.getParagraph());
+        this.getParagraph()
+            .apply(elementsToBeRemoved::add);
     }
 
     @Override
@@ -141,9 +139,8 @@ public class DisplayIfProcessor
     public void displayDocPartIf(@Nullable Boolean condition) {
         if (Boolean.TRUE.equals(condition)) return;
         var commentWrapper = getCurrentCommentWrapper();
-        commentWrapper.getParent()
-                      .getContent()
-                      .removeAll(commentWrapper.getElements());
+        WmlUtils.removeAll(commentWrapper.getParent()
+                                         .getContent(), commentWrapper.getElements());
     }
 
     @Override
@@ -1,18 +1,15 @@
 package pro.verron.officestamper.preset.processors.repeat;
 
-import org.docx4j.TraversalUtil;
 import org.docx4j.XmlUtils;
-import org.docx4j.finders.ClassFinder;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.wml.Comments;
-import org.docx4j.wml.P;
 import org.docx4j.wml.Tbl;
 import org.docx4j.wml.Tr;
 import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.*;
-import pro.verron.officestamper.core.CommentUtil;
-import pro.verron.officestamper.core.StandardParagraph;
+import pro.verron.officestamper.core.Stencil;
 import pro.verron.officestamper.preset.CommentProcessorFactory;
+import pro.verron.officestamper.utils.WmlUtils;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -38,6 +35,7 @@ public class RepeatProcessor
 
     private final BiFunction<WordprocessingMLPackage, Tr, List<Tr>> nullSupplier;
     private Map<Tr, Iterable<Object>> tableRowsToRepeat = new HashMap<>();
+    private Map<Tr, Iterable<Object>> tableRowsToStream = new HashMap<>();
     private Map<Tr, Comment> tableRowsCommentsToRemove = new HashMap<>();
 
     private RepeatProcessor(
@@ -70,40 +68,48 @@ public class RepeatProcessor
             Iterable<Object> expressionContexts = entry.getValue();
 
             Tbl table = (Tbl) XmlUtils.unwrap(row.getParent());
-            var content = table.getContent();
-            int index = content.indexOf(row);
-            content.remove(row);
-
             List<Tr> changes;
             if (expressionContexts == null) {
                 changes = nullSupplier.apply(source.document(), row);
             }
             else {
                 changes = new ArrayList<>();
+                var stencil = Stencil.compile(source, List.of(row), commentId(row), placeholderReplacer);
                 for (Object expressionContext : expressionContexts) {
-                    Tr rowClone = XmlUtils.deepCopy(row);
-                    Comment commentWrapper = requireNonNull(tableRowsCommentsToRemove.get(row));
-                    Comments.Comment comment = requireNonNull(commentWrapper.getComment());
-                    BigInteger commentId = comment.getId();
-                    CommentUtil.deleteCommentFromElements(rowClone.getContent(), commentId);
-                    var classFinder = new ClassFinder(P.class);
-                    TraversalUtil.visit(rowClone, classFinder);
-                    var objects = classFinder.results;
-                    for (Object object : objects) {
-                        P result = (P) object;
-                        StandardParagraph paragraph = StandardParagraph.from(source, result);
-                        placeholderReplacer.resolveExpressionsForParagraph(source, paragraph, expressionContext);
-                    }
-                    changes.add(rowClone);
+                    changes.addAll(stencil.fill(source, placeholderReplacer, expressionContext));
                 }
             }
-            content.addAll(index, changes);
+            WmlUtils.splice(table.getContent(), List.of(row), changes);
+        }
+        for (Map.Entry<Tr, Iterable<Object>> entry : tableRowsToStream.entrySet()) {
+            Tr row = entry.getKey();
+            Iterable<Object> expressionContexts = entry.getValue();
+            if (expressionContexts == null) {
+                Tbl table = (Tbl) XmlUtils.unwrap(row.getParent());
+                table.getContent()
+                     .remove(row);
+                continue;
+            }
+            // the rows are generated after this processor is reset, so nothing from its state is read while streaming
+            var stencil = Stencil.compile(source, List.of(row), commentId(row), placeholderReplacer);
+            StreamedRows.install(source.document(),
+                    row,
+                    expressionContexts,
+                    expressionContext -> stencil.fill(source, placeholderReplacer, expressionContext)
+                                                .get(0));
         }
     }
 
+    private BigInteger commentId(Tr row) {
+        Comment commentWrapper = requireNonNull(tableRowsCommentsToRemove.get(row));
+        Comments.Comment comment = requireNonNull(commentWrapper.getComment());
+        return comment.getId();
+    }
+
     /** {@inheritDoc} */
     @Override public void reset() {
         this.tableRowsToRepeat = new HashMap<>();
+        this.tableRowsToStream = new HashMap<>();
         this.tableRowsCommentsToRemove = new HashMap<>();
     }
 
@@ -116,4 +122,18 @@ public class RepeatProcessor
         tableRowsCommentsToRemove.put(tr, getCurrentCommentWrapper());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The rows are generated from a copy of the template row while the document is saved, iterating the objects
+     * once, and are never stored in the table.
+     */
+    @Override public void streamTableRow(@Nullable Iterable<Object> objects) {
+        var tr = this.getParagraph()
+                     .parent(Tr.class)
+                     .orElseThrow(OfficeStamperException.throwing("This paragraph is not in a table row."));
+        tableRowsToStream.put(tr, objects);
+        tableRowsCommentsToRemove.put(tr, getCurrentCommentWrapper());
+    }
+
 }
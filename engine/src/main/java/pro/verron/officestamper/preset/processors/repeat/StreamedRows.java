@@ -0,0 +1,205 @@
+package pro.verron.officestamper.preset.processors.repeat;
+
+import jakarta.xml.bind.JAXBElement;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.packages.OpcPackage;
+import org.docx4j.wml.ContentAccessor;
+import org.docx4j.wml.Tbl;
+import org.docx4j.wml.Tr;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.core.DocumentUtil;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * The content of a table whose repeated row is generated while the document is saved, instead of being stored.
+ * <p>
+ * While the document is being stamped, an empty row stands for the repeated one, so that the stamping passes neither
+ * see its expressions nor build the rows for nothing. Once it is stamped, see {@link DocumentUtil#markStamped}, the
+ * table is replaced by a {@link StreamedTable} listing the template row in its place: postprocessors see the template
+ * row, not the generated ones. Only when the document is saved, see {@link DocumentUtil#save}, does iterating the
+ * content generate the rows, one per context, each written as soon as it is built, so that only one generated row is
+ * in memory at a time. The contexts are iterated a single time, so single-use iterables are supported, and iterating
+ * the content again during the save fails.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+final class StreamedRows
+        extends AbstractList<Object> {
+
+    private final List<Object> content;
+    private final OpcPackage document;
+    private final Tr template;
+    private final Iterable<?> contexts;
+    private final Function<Object, Tr> generator;
+    private boolean generated;
+
+    private StreamedRows(
+            List<Object> content,
+            OpcPackage document,
+            Tr template,
+            Iterable<?> contexts,
+            Function<Object, Tr> generator
+    ) {
+        this.content = content;
+        this.document = document;
+        this.template = template;
+        this.contexts = contexts;
+        this.generator = generator;
+    }
+
+    /**
+     * Replaces a row of a table with an empty row, standing for the rows generated from each context once the document
+     * is saved. Nothing is generated if the table is no longer in the document once it is stamped.
+     *
+     * @param document  the document holding the table.
+     * @param template  the row to repeat, in its table.
+     * @param contexts  the contexts of the rows, iterated once, when the document is saved.
+     * @param generator builds the row of a context.
+     */
+    static void install(
+            OpcPackage document,
+            Tr template,
+            Iterable<?> contexts,
+            Function<Object, Tr> generator
+    ) {
+        var table = (Tbl) XmlUtils.unwrap(template.getParent());
+        var content = table.getContent();
+        var marker = new Tr();
+        content.set(content.indexOf(template), marker);
+        DocumentUtil.onStamped(document, () -> {
+            var stamped = (Tbl) XmlUtils.unwrap(marker.getParent());
+            var index = stamped.getContent()
+                               .indexOf(marker);
+            if (index < 0 || !isAttached(stamped)) return;
+            stamped.getContent()
+                   .set(index, template);
+            StreamedTable.of(stamped)
+                         .stream(rows -> new StreamedRows(rows, document, template, contexts, generator));
+        });
+    }
+
+    private static boolean isAttached(Tbl table) {
+        return table.getParent() instanceof ContentAccessor parent && parent.getContent()
+                                                                            .stream()
+                                                                            .anyMatch(o -> XmlUtils.unwrap(o)
+                                                                                           == table);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        if (!DocumentUtil.isSaving(document)) return content.iterator();
+        if (generated) throw new OfficeStamperException("The streamed rows of a table are generated only once, while"
+                                                        + " the document is saved, and cannot be iterated again");
+        generated = true;
+        return new Iterator<>() {
+            private final Iterator<Object> rows = content.iterator();
+            private Iterator<?> generating = Collections.emptyIterator();
+            @Nullable private Object pending;
+            private boolean hasPending;
+
+            @Override
+            public boolean hasNext() {
+                if (hasPending || generating.hasNext()) return true;
+                while (rows.hasNext()) {
+                    var row = rows.next();
+                    if (row == template) generating = contexts.iterator();
+                    else {
+                        pending = row;
+                        hasPending = true;
+                    }
+                    if (hasNext()) return true;
+                }
+                return false;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                if (!hasPending) return generator.apply(generating.next());
+                var row = pending;
+                pending = null;
+                hasPending = false;
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        if (!DocumentUtil.isSaving(document)) return content.size();
+        if (contexts instanceof Collection<?> collection) return content.size() - 1 + collection.size();
+        throw new OfficeStamperException("The streamed rows of a table cannot be counted while the document is saved");
+    }
+
+    @Override
+    public Object get(int index) {
+        return stored().get(index);
+    }
+
+    @Override
+    public Object set(int index, Object row) {
+        return stored().set(index, row);
+    }
+
+    @Override
+    public void add(int index, Object row) {
+        stored().add(index, row);
+    }
+
+    @Override
+    public Object remove(int index) {
+        return stored().remove(index);
+    }
+
+    private List<Object> stored() {
+        if (DocumentUtil.isSaving(document))
+            throw new OfficeStamperException("The streamed rows of a table can only be iterated while the document is"
+                                             + " saved");
+        return content;
+    }
+
+    /**
+     * A table whose content is listed by a {@link StreamedRows}. It replaces the original table in its parent, since
+     * the content of a {@link Tbl} can only be swapped from a subclass, and is marshalled as the {@link Tbl} it
+     * extends.
+     */
+    private static final class StreamedTable
+            extends Tbl {
+
+        private StreamedTable(Tbl table) {
+            setTblPr(table.getTblPr());
+            setTblGrid(table.getTblGrid());
+            setParent(table.getParent());
+            getContent().addAll(table.getContent());
+        }
+
+        /// Returns the given table if it is already streamed, or replaces it in its parent with a streamed copy.
+        @SuppressWarnings("unchecked")
+        static StreamedTable of(Tbl table) {
+            if (table instanceof StreamedTable streamed) return streamed;
+            var streamed = new StreamedTable(table);
+            var siblings = ((ContentAccessor) table.getParent()).getContent();
+            for (int i = 0; i < siblings.size(); i++) {
+                var sibling = siblings.get(i);
+                if (sibling == table) siblings.set(i, streamed);
+                else if (sibling instanceof JAXBElement<?> element && element.getValue() == table)
+                    ((JAXBElement<Tbl>) element).setValue(streamed);
+            }
+            return streamed;
+        }
+
+        void stream(Function<List<Object>, StreamedRows> rows) {
+            content = rows.apply(getContent());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package pro.verron.officestamper.preset.processors.repeatdocpart;
 
 import org.docx4j.openpackaging.exceptions.Docx4JException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Body;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.P;
 import org.docx4j.wml.R;
@@ -13,14 +14,20 @@ import pro.verron.officestamper.core.CommentUtil;
 import pro.verron.officestamper.core.DocumentUtil;
 import pro.verron.officestamper.core.SectionUtil;
 import pro.verron.officestamper.preset.CommentProcessorFactory;
+import pro.verron.officestamper.utils.WmlCloner;
 import pro.verron.officestamper.utils.WmlFactory;
+import pro.verron.officestamper.utils.WmlUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
@@ -35,9 +42,14 @@ import static pro.verron.officestamper.core.SectionUtil.getPreviousSectionBreakI
 
 /**
  * This class is responsible for processing the &lt;ds: repeat&gt; tag.
- * It uses the {@link OfficeStamper} to stamp the sub document and then
- * copies the resulting sub document to the correct position in the
- * main document.
+ * For each item, it stamps a copy of the commented elements with a {@link DocxPartStamper}, directly inside the main
+ * document so that styles, images and other parts are shared, and inserts the stamped copies at the correct position.
+ * When an {@link Executor} is given, the copies of the outermost repeated parts are stamped in parallel on it, and
+ * still inserted in the order of their contexts; the parts repeated inside a copy are stamped inline, by the task
+ * stamping that copy.
+ * <p>
+ * Instances created with a legacy {@link OfficeStamper} still stamp each item as a separate sub document, which is
+ * saved and loaded again, then copy the resulting sub document to the correct position in the main document.
  *
  * @author Joseph Verron
  * @author Youssouf Naciri
@@ -48,19 +60,29 @@ public class RepeatDocPartProcessor
         extends AbstractCommentProcessor
         implements CommentProcessorFactory.IRepeatDocPartProcessor {
     private static final ThreadFactory threadFactory = Executors.defaultThreadFactory();
+    /// Set while a copy is stamped on the executor, so that the parts repeated inside it are stamped inline: a task
+    /// waiting for other tasks of the same executor could otherwise hold every thread of a bounded one.
+    private static final ThreadLocal<Boolean> stampingCopy = ThreadLocal.withInitial(() -> false);
 
-    private final OfficeStamper<WordprocessingMLPackage> stamper;
+    @Nullable private final OfficeStamper<WordprocessingMLPackage> stamper;
+    @Nullable private final Supplier<? extends DocxPartStamper> partStamperSupplier;
     private final Map<Comment, Iterable<Object>> contexts = new HashMap<>();
     private final Supplier<? extends List<?>> nullSupplier;
+    @Nullable private final Executor executor;
+    @Nullable private DocxPartStamper partStamper;
 
     private RepeatDocPartProcessor(
             ParagraphPlaceholderReplacer placeholderReplacer,
-            OfficeStamper<WordprocessingMLPackage> stamper,
-            Supplier<? extends List<?>> nullSupplier
+            @Nullable OfficeStamper<WordprocessingMLPackage> stamper,
+            @Nullable Supplier<? extends DocxPartStamper> partStamperSupplier,
+            Supplier<? extends List<?>> nullSupplier,
+            @Nullable Executor executor
     ) {
         super(placeholderReplacer);
         this.stamper = stamper;
+        this.partStamperSupplier = partStamperSupplier;
         this.nullSupplier = nullSupplier;
+        this.executor = executor;
     }
 
     /**
@@ -70,11 +92,53 @@ public class RepeatDocPartProcessor
      * @param stamper the stamper
      *
      * @return a new instance of this processor
+     *
+     * @deprecated stamps each item through a saved and reloaded sub document, use
+     * {@link #newInstance(ParagraphPlaceholderReplacer, Supplier)} to stamp the items in memory
      */
+    @Deprecated(since = "2.7", forRemoval = true)
     public static CommentProcessor newInstance(
             ParagraphPlaceholderReplacer pr, OfficeStamper<WordprocessingMLPackage> stamper
     ) {
-        return new RepeatDocPartProcessor(pr, stamper, Collections::emptyList);
+        return new RepeatDocPartProcessor(pr, stamper, null, Collections::emptyList, null);
+    }
+
+    /**
+     * Creates a processor stamping the repeated elements in memory, inside the document they belong to.
+     * The part stamper is only requested when a document part is actually repeated, at most once per processor.
+     *
+     * @param pr           the placeholderReplacer
+     * @param partStamper  supplies the stamper of the copies of the repeated elements
+     *
+     * @return a new instance of this processor
+     */
+    public static CommentProcessor newInstance(
+            ParagraphPlaceholderReplacer pr, Supplier<? extends DocxPartStamper> partStamper
+    ) {
+        return new RepeatDocPartProcessor(pr, null, partStamper, Collections::emptyList, null);
+    }
+
+    /**
+     * Creates a processor stamping the repeated elements in memory, the copies of one repeated part being stamped in
+     * parallel on the given executor.
+     * Only the outermost repeated parts are stamped in parallel, the nested ones being stamped by the task stamping
+     * the copy they belong to, so the executor may be bounded; it must not be running the stamp of the document
+     * itself, which waits for the copies.
+     * The part stamper, and the objects reached by the expressions of the repeated elements, must then support
+     * concurrent use.
+     *
+     * @param pr          the placeholderReplacer
+     * @param partStamper supplies the stamper of the copies of the repeated elements
+     * @param executor    runs the stamp of each copy, or null to stamp them sequentially
+     *
+     * @return a new instance of this processor
+     */
+    public static CommentProcessor newInstance(
+            ParagraphPlaceholderReplacer pr,
+            Supplier<? extends DocxPartStamper> partStamper,
+            @Nullable Executor executor
+    ) {
+        return new RepeatDocPartProcessor(pr, null, partStamper, Collections::emptyList, executor);
     }
 
     /**
@@ -100,18 +164,20 @@ public class RepeatDocPartProcessor
             var expressionContexts = entry.getValue();
             var gcp = requireNonNull(comment.getParent());
             var repeatElements = comment.getElements();
-            var subTemplate = CommentUtil.createSubWordDocument(comment);
             var oddNumberOfBreaks = SectionUtil.hasOddNumberOfSectionBreaks(repeatElements);
             var sectionBreakInserter = getPreviousSectionBreakIfPresent(repeatElements.get(0), gcp)
                     .map(psb -> (UnaryOperator<List<Object>>) objs -> insertSectionBreak(objs, psb, oddNumberOfBreaks))
                     .orElse(UnaryOperator.identity());
-            var changes = expressionContexts == null
-                    ? nullSupplier.get()
-                    : stampSubDocuments(source.document(), expressionContexts, gcp, subTemplate, sectionBreakInserter);
-            var gcpContent = gcp.getContent();
-            var index = gcpContent.indexOf(repeatElements.get(0));
-            gcpContent.addAll(index, changes);
-            gcpContent.removeAll(repeatElements);
+            List<?> changes;
+            if (expressionContexts == null) changes = nullSupplier.get();
+            else if (stamper == null)
+                changes = stampCopies(source, comment, expressionContexts, gcp, sectionBreakInserter);
+            else changes = stampSubDocuments(source.document(),
+                    expressionContexts,
+                    gcp,
+                    CommentUtil.createSubWordDocument(comment),
+                    sectionBreakInserter);
+            WmlUtils.splice(gcp.getContent(), repeatElements, changes);
         }
     }
 
@@ -134,6 +200,82 @@ public class RepeatDocPartProcessor
         return inserts;
     }
 
+    private List<Object> stampCopies(
+            DocxPart source,
+            Comment comment,
+            Iterable<Object> expressionContexts,
+            ContentAccessor gcp,
+            UnaryOperator<List<Object>> sectionBreakInserter
+    ) {
+        var commentId = comment.getComment()
+                               .getId();
+        var elements = comment.getElements();
+        var stamper = partStamper();
+        var parallel = executor != null && !stampingCopy.get();
+        var copies = new ArrayList<Supplier<Body>>();
+        for (Object expressionContext : expressionContexts) {
+            Supplier<Body> task = () -> stampCopy(stamper, source, elements, commentId, expressionContext);
+            copies.add(parallel ? fork(task, executor) : task);
+        }
+        var changes = new ArrayList<>();
+        for (Supplier<Body> copy : copies) {
+            var os = sectionBreakInserter.apply(new ArrayList<>(copy.get().getContent()));
+            os.forEach(c -> setParentIfPossible(c, gcp));
+            changes.addAll(os);
+        }
+        return changes;
+    }
+
+    private static Body stampCopy(
+            DocxPartStamper stamper,
+            DocxPart source,
+            List<Object> elements,
+            BigInteger commentId,
+            Object expressionContext
+    ) {
+        var copy = copyWithoutComment(elements, commentId);
+        stamper.stamp(source.from(copy), expressionContext);
+        return copy;
+    }
+
+    /// Starts the task on the executor, marked as stamping a copy, and returns a supplier waiting for its result,
+    /// rethrowing its failure.
+    private static <T> Supplier<T> fork(Supplier<T> task, Executor executor) {
+        Supplier<T> marked = () -> {
+            var outer = stampingCopy.get();
+            stampingCopy.set(true);
+            try {
+                return task.get();
+            } finally {
+                stampingCopy.set(outer);
+            }
+        };
+        var future = CompletableFuture.supplyAsync(marked, executor);
+        return () -> {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw new OfficeStamperException(e.getCause());
+            }
+        };
+    }
+
+    /// Copies the repeated elements into a detached body, without the anchors of the repeating comment.
+    private static Body copyWithoutComment(List<Object> elements, BigInteger commentId) {
+        var copies = new ArrayList<>(elements.size());
+        for (Object element : elements) copies.add(WmlCloner.deepCopy(element));
+        CommentUtil.deleteCommentFromElements(copies, commentId);
+        var body = WmlFactory.newBody(copies);
+        copies.forEach(c -> setParentIfPossible(c, body));
+        return body;
+    }
+
+    private DocxPartStamper partStamper() {
+        if (partStamper == null) partStamper = requireNonNull(partStamperSupplier).get();
+        return partStamper;
+    }
+
     private List<Object> stampSubDocuments(
             WordprocessingMLPackage document,
             Iterable<Object> expressionContexts,
@@ -1,17 +1,14 @@
 package pro.verron.officestamper.preset.processors.repeatparagraph;
 
-import org.docx4j.XmlUtils;
-import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.P;
 import pro.verron.officestamper.api.*;
-import pro.verron.officestamper.core.CommentUtil;
 import pro.verron.officestamper.core.SectionUtil;
-import pro.verron.officestamper.core.StandardParagraph;
+import pro.verron.officestamper.core.Stencil;
 import pro.verron.officestamper.preset.CommentProcessorFactory;
 import pro.verron.officestamper.preset.Paragraphs;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -68,27 +65,19 @@ public class ParagraphRepeatProcessor
     }
 
     private List<P> generateParagraphsToAdd(DocxPart document, Paragraphs paragraphs) {
-        var paragraphsToAdd = new LinkedList<P>();
+        var paragraphsToAdd = new ArrayList<P>();
+        var commentId = paragraphs.comment()
+                                  .getComment()
+                                  .getId();
+        var stencil = Stencil.compile(document, paragraphs.elements(P.class), commentId, placeholderReplacer);
         for (var it = paragraphs.data(); it.hasNext(); ) {
             Object expressionContext = it.next();
-            for (Object paragraphToClone : paragraphs.elements()) {
-                Object clone = XmlUtils.deepCopy(paragraphToClone);
-                var comment = paragraphs.comment();
-                var comment1 = comment.getComment();
-                var commentId = comment1.getId();
-                if (clone instanceof ContentAccessor contentAccessor) {
-                    CommentUtil.deleteCommentFromElements(contentAccessor.getContent(), commentId);
-                }
-                if (clone instanceof P p) {
-                    var paragraph = StandardParagraph.from(document, p);
-                    placeholderReplacer.resolveExpressionsForParagraph(document, paragraph, expressionContext);
-                    paragraphsToAdd.add(p);
-                }
-            }
+            paragraphsToAdd.addAll(stencil.fill(document, placeholderReplacer, expressionContext));
             var sectPr = paragraphs.previousSectionBreak();
             if (paragraphs.oddNumberOfBreaks() && sectPr.isPresent() && it.hasNext()) {
-                assert paragraphsToAdd.peekLast() != null : "There should be at least one ";
-                SectionUtil.applySectionBreakToParagraph(sectPr.get(), paragraphsToAdd.peekLast());
+                assert !paragraphsToAdd.isEmpty() : "There should be at least one ";
+                var last = paragraphsToAdd.get(paragraphsToAdd.size() - 1);
+                SectionUtil.applySectionBreakToParagraph(sectPr.get(), last);
             }
         }
         return paragraphsToAdd;
@@ -1,7 +1,6 @@
 package pro.verron.officestamper.preset.processors.table;
 
 import jakarta.xml.bind.JAXBElement;
-import org.docx4j.XmlUtils;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.wml.ContentAccessor;
 import org.docx4j.wml.Tbl;
@@ -12,6 +11,7 @@ import pro.verron.officestamper.api.*;
 import pro.verron.officestamper.core.PlaceholderReplacer;
 import pro.verron.officestamper.preset.CommentProcessorFactory;
 import pro.verron.officestamper.preset.StampTable;
+import pro.verron.officestamper.utils.WmlCloner;
 import pro.verron.officestamper.utils.WmlFactory;
 
 import java.util.Collections;
@@ -123,7 +123,7 @@ public class TableResolver
         if (values.size() > 1) {
             //Copy the first cell and replace content for each remaining value
             for (String cellContent : values.subList(1, values.size())) {
-                JAXBElement<Tc> xmlCell = XmlUtils.deepCopy(cell0);
+                JAXBElement<Tc> xmlCell = WmlCloner.deepCopy(cell0);
                 setCellText(xmlCell.getValue(), cellContent);
                 cellRowContent.add(xmlCell);
             }
@@ -131,7 +131,7 @@ public class TableResolver
     }
 
     private Tr copyRowFromTemplate(Tr firstDataRow, List<String> rowContent) {
-        Tr newXmlRow = XmlUtils.deepCopy(firstDataRow);
+        Tr newXmlRow = WmlCloner.deepCopy(firstDataRow);
         List<Object> xmlRow = newXmlRow.getContent();
         for (int i = 0; i < rowContent.size(); i++) {
             String cellContent = rowContent.get(i);
@@ -8,6 +8,9 @@ import pro.verron.officestamper.api.ObjectResolver;
 import pro.verron.officestamper.api.OfficeStamperException;
 import pro.verron.officestamper.preset.Image;
 
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * This {@link ObjectResolver} allows context objects to return objects of
  * type {@link Image}. An expression that resolves to an {@link Image}
@@ -26,6 +29,18 @@ public class ImageResolver
         return object instanceof Image;
     }
 
+    /**
+     * Declares {@link Image} as the only type handled.
+     * Subclasses overriding {@link #canResolve(Object)} without overriding this method are asked with
+     * {@link #canResolve(Object)} for every value.
+     *
+     * @return the {@link Image} type
+     */
+    @Override
+    public Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.of(Set.of(Image.class));
+    }
+
     @Override
     public R resolve(
             DocxPart document,
@@ -5,6 +5,9 @@ import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.ObjectResolver;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.WmlFactory.newRun;
 
 /**
@@ -34,6 +37,16 @@ public record Null2DefaultResolver(String text)
         return object == null;
     }
 
+    /**
+     * Declares that no non-null object is handled.
+     *
+     * @return an empty set of types
+     */
+    @Override
+    public Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.of(Set.of());
+    }
+
     @Override
     public R resolve(
             DocxPart document,
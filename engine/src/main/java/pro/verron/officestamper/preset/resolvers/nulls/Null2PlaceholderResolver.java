@@ -7,6 +7,9 @@ import pro.verron.officestamper.api.ObjectResolver;
 import pro.verron.officestamper.api.OfficeStamperException;
 import pro.verron.officestamper.api.Placeholder;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.WmlFactory.newRun;
 
 /**
@@ -39,6 +42,18 @@ public class Null2PlaceholderResolver
         return object == null;
     }
 
+    /**
+     * Declares that no non-null object is handled.
+     * Subclasses overriding {@link #canResolve(Object)} without overriding this method are asked with
+     * {@link #canResolve(Object)} for every value.
+     *
+     * @return an empty set of types
+     */
+    @Override
+    public Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.of(Set.of());
+    }
+
     @Override
     public R resolve(
             DocxPart document,
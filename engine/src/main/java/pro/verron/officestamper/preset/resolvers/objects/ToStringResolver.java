@@ -5,6 +5,9 @@ import org.springframework.lang.Nullable;
 import pro.verron.officestamper.api.DocxPart;
 import pro.verron.officestamper.api.ObjectResolver;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static pro.verron.officestamper.utils.WmlFactory.newRun;
 
 /**
@@ -23,6 +26,18 @@ public class ToStringResolver
         return object != null;
     }
 
+    /**
+     * Declares that any non-null object is handled.
+     * Subclasses overriding {@link #canResolve(Object)} without overriding this method are asked with
+     * {@link #canResolve(Object)} for every value.
+     *
+     * @return the {@link Object} type
+     */
+    @Override
+    public Optional<Set<Class<?>>> resolvedTypes() {
+        return Optional.of(Set.of(Object.class));
+    }
+
     @Override
     public R resolve(
             DocxPart document,
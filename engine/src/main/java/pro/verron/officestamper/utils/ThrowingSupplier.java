@@ -0,0 +1,32 @@
+package pro.verron.officestamper.utils;
+
+import pro.verron.officestamper.api.OfficeStamperException;
+
+import java.util.function.Supplier;
+
+/// A [Supplier] whose computation may throw a checked exception, rethrown wrapped in an [OfficeStamperException].
+///
+/// @param <T> the type of the supplied values.
+@FunctionalInterface
+public interface ThrowingSupplier<T>
+        extends Supplier<T> {
+
+    /// Computes the value, possibly throwing.
+    ///
+    /// @return the supplied value.
+    ///
+    /// @throws Exception if the value cannot be computed.
+    T getWithException()
+            throws Exception;
+
+    @Override
+    default T get() {
+        try {
+            return getWithException();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OfficeStamperException(e);
+        }
+    }
+}
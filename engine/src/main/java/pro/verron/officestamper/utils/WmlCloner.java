@@ -0,0 +1,219 @@
+package pro.verron.officestamper.utils;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.annotation.XmlType;
+import org.docx4j.XmlUtils;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.OfficeStamperException;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import java.io.Serial;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copies WordprocessingML objects by walking their object graph, instead of marshalling them to XML and unmarshalling
+ * them back as {@link XmlUtils#deepCopy(Object)} does.
+ * <p>
+ * The classes mapped to an XML type are copied field by field, lists element by element into a list of the same type,
+ * and the values known to be immutable are shared. The parent of each copied {@link Child} is the copy of the object
+ * holding it, and the parent of the copied root is left empty, like with {@link XmlUtils#deepCopy(Object)}. Objects
+ * holding a value of an unknown type, like a DOM tree from an extension, are copied with
+ * {@link XmlUtils#deepCopy(Object)} instead.
+ *
+ * @author Joseph Verron
+ * @version ${version}
+ * @since 2.7.0
+ */
+public final class WmlCloner {
+
+    private static final ClassValue<Plan> PLANS = new ClassValue<>() {
+        @Override
+        protected Plan computeValue(Class<?> type) {
+            return Plan.of(type);
+        }
+    };
+    private static final ClassValue<MethodHandle> LISTS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return listFactory(type);
+        }
+    };
+
+    private WmlCloner() {
+        throw new OfficeStamperException("Utility class shouldn't be instantiated");
+    }
+
+    /**
+     * Copies a WordprocessingML object and everything it holds.
+     *
+     * @param object the object to copy.
+     * @param <T>    the type of the object.
+     *
+     * @return the copy, with no parent.
+     */
+    public static <T> T deepCopy(T object) {
+        if (object == null) return null;
+        return structuralCopy(object).orElseGet(() -> XmlUtils.deepCopy(object));
+    }
+
+    /**
+     * Copies a WordprocessingML object and everything it holds, without falling back on a copy through XML.
+     *
+     * @param object the object to copy.
+     * @param <T>    the type of the object.
+     *
+     * @return the copy, with no parent, or nothing if the object holds a value that can only be copied through XML.
+     */
+    public static <T> Optional<T> structuralCopy(T object) {
+        try {
+            return Optional.of(copy(object, null));
+        } catch (Unsupported e) {
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T object, @Nullable Object parent) {
+        if (object == null || isImmutable(object)) return object;
+        if (object instanceof JAXBElement<?> element) return (T) copy(element, parent);
+        if (object instanceof List<?> list) return (T) copy(list, parent);
+        if (object instanceof XMLGregorianCalendar calendar) return (T) calendar.clone();
+        if (object instanceof byte[] bytes) return (T) bytes.clone();
+        return (T) PLANS.get(object.getClass())
+                        .apply(object, parent);
+    }
+
+    private static boolean isImmutable(Object object) {
+        return object instanceof String || object instanceof Boolean || object instanceof Enum<?>
+               || object instanceof BigInteger || object instanceof BigDecimal || object instanceof Long
+               || object instanceof Integer || object instanceof Short || object instanceof Byte
+               || object instanceof Double || object instanceof Float || object instanceof Character
+               || object instanceof QName;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static JAXBElement<?> copy(JAXBElement<?> element, @Nullable Object parent) {
+        if (element.getClass() != JAXBElement.class) throw new Unsupported();
+        var copy = new JAXBElement(element.getName(),
+                element.getDeclaredType(),
+                element.getScope(),
+                copy(element.getValue(), parent));
+        copy.setNil(element.isNil());
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> copy(List<?> list, @Nullable Object parent) {
+        List<Object> copy;
+        if (list.getClass() == ArrayList.class) copy = new ArrayList<>(list.size());
+        else {
+            var factory = LISTS.get(list.getClass());
+            if (factory == null) throw new Unsupported();
+            try {
+                copy = (List<Object>) factory.invokeExact(parent);
+            } catch (Throwable e) {
+                throw new OfficeStamperException("Failed to copy " + list.getClass(), e);
+            }
+        }
+        for (Object element : list) copy.add(copy(element, parent));
+        return copy;
+    }
+
+    /// The content lists of docx4j, like [org.docx4j.wml.ArrayListWml], know the object holding them, and find
+    /// elements wrapped in a [JAXBElement] when asked to remove or find them, so their copies keep their type.
+    @Nullable
+    private static MethodHandle listFactory(Class<?> type) {
+        var factoryType = MethodType.methodType(List.class, Object.class);
+        try {
+            var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            try {
+                return lookup.findConstructor(type, MethodType.methodType(void.class, Object.class))
+                             .asType(factoryType);
+            } catch (NoSuchMethodException e) {
+                var constructor = lookup.findConstructor(type,
+                        MethodType.methodType(void.class, Object.class, int.class));
+                return MethodHandles.insertArguments(constructor, 1, 0)
+                                    .asType(factoryType);
+            }
+        } catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /// Raised on a value the cloner cannot copy, to fall back on a copy through XML.
+    private static final class Unsupported
+            extends RuntimeException {
+        @Serial private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    /// How to copy the instances of a JAXB class: create an empty instance, then copy each field.
+    private record Plan(@Nullable MethodHandle constructor, List<FieldCopy> fields) {
+
+        static Plan of(Class<?> type) {
+            if (!isJaxbType(type)) return new Plan(null, List.of());
+            try {
+                var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                var constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                                        .asType(MethodType.methodType(Object.class));
+                var fields = new ArrayList<FieldCopy>();
+                for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) continue;
+                        var fieldLookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                        var parent = Child.class.isAssignableFrom(c) && field.getName()
+                                                                              .equals("parent");
+                        var getter = fieldLookup.unreflectGetter(field)
+                                                .asType(MethodType.methodType(Object.class, Object.class));
+                        var setter = fieldLookup.unreflectSetter(field)
+                                                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                        fields.add(new FieldCopy(getter, setter, parent));
+                    }
+                }
+                return new Plan(constructor, List.copyOf(fields));
+            } catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
+                return new Plan(null, List.of());
+            }
+        }
+
+        /// Only the classes mapped to an XML type are copied field by field, anything else, like a part of the
+        /// document, is not a value to copy.
+        private static boolean isJaxbType(Class<?> type) {
+            return type.isAnnotationPresent(XmlType.class) && !type.isEnum();
+        }
+
+        Object apply(Object object, @Nullable Object parent) {
+            if (constructor == null) throw new Unsupported();
+            try {
+                var copy = (Object) constructor.invokeExact();
+                for (FieldCopy field : fields) {
+                    var value = field.parent() ? parent : copy(field.getter()
+                                                                    .invokeExact(object), copy);
+                    field.setter()
+                         .invokeExact(copy, value);
+                }
+                return copy;
+            } catch (Unsupported | OfficeStamperException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new OfficeStamperException("Failed to copy " + object.getClass(), e);
+            }
+        }
+    }
+
+    private record FieldCopy(MethodHandle getter, MethodHandle setter, boolean parent) {}
+}
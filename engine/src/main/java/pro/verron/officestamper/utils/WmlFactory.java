@@ -1,9 +1,15 @@
 package pro.verron.officestamper.utils;
 
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.docx4j.dml.*;
+import org.docx4j.dml.picture.CTPictureNonVisual;
+import org.docx4j.dml.picture.Pic;
+import org.docx4j.dml.wordprocessingDrawing.CTEffectExtent;
 import org.docx4j.dml.wordprocessingDrawing.Inline;
 import org.docx4j.openpackaging.exceptions.InvalidFormatException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage.CxCy;
 import org.docx4j.openpackaging.parts.WordprocessingML.CommentsPart;
 import org.docx4j.wml.*;
 import org.springframework.lang.Nullable;
@@ -241,6 +247,120 @@ public class WmlFactory {
         return newRun(newDrawing(inline));
     }
 
+    /**
+     * Creates a new run containing an image referenced through the given relationship, for image parts shared by
+     * several runs or parts. The image is sized as docx4j sizes it, to fit the page of the last section of the
+     * document.
+     *
+     * @param maxWidth       the maximum width of the image, it can be null
+     * @param abstractImage  the binary part abstract image to be included in the run
+     * @param imageInfo      the type and size of the image
+     * @param relationshipId the id of the relationship to the image, from the part containing the run
+     * @param filenameHint   the filename hint for the image
+     * @param altText        the alternative text for the image
+     *
+     * @return a new run element containing the image
+     */
+    public static R newRun(
+            @Nullable Integer maxWidth,
+            BinaryPartAbstractImage abstractImage,
+            ImageInfo imageInfo,
+            String relationshipId,
+            String filenameHint,
+            String altText
+    ) {
+        var document = (WordprocessingMLPackage) abstractImage.getPackage();
+        var sections = document.getDocumentModel()
+                               .getSections();
+        var page = sections.get(sections.size() - 1)
+                           .getPageDimensions();
+        var size = maxWidth == null ? CxCy.scale(imageInfo, page) : CxCy.scale(imageInfo, page, maxWidth);
+        var inline = newInline(relationshipId, size.getCx(), size.getCy(), filenameHint, altText);
+        return newRun(newDrawing(inline));
+    }
+
+    /**
+     * Creates a new Inline object showing the image of the given relationship, with the same content as the ones
+     * docx4j creates for an image part.
+     *
+     * @param relationshipId the id of the relationship to the image, from the part containing the inline.
+     * @param cx             the width of the image, in EMU.
+     * @param cy             the height of the image, in EMU.
+     * @param filenameHint   A hint for the filename of the image.
+     * @param altText        Alternative text for the image.
+     *
+     * @return A new Inline object showing the image.
+     */
+    public static Inline newInline(String relationshipId, long cx, long cy, String filenameHint, String altText) {
+        var blip = new CTBlip();
+        blip.setEmbed(relationshipId);
+        var stretch = new CTStretchInfoProperties();
+        stretch.setFillRect(new CTRelativeRect());
+        var blipFill = new CTBlipFillProperties();
+        blipFill.setBlip(blip);
+        blipFill.setStretch(stretch);
+
+        var offset = new CTPoint2D();
+        var transform = new CTTransform2D();
+        transform.setOff(offset);
+        transform.setExt(newSize(cx, cy));
+        var geometry = new CTPresetGeometry2D();
+        geometry.setPrst(STShapeType.RECT);
+        geometry.setAvLst(new CTGeomGuideList());
+        var shape = new CTShapeProperties();
+        shape.setXfrm(transform);
+        shape.setPrstGeom(geometry);
+
+        // creating random ids assuming they are unique,
+        // id must not be too large
+        // otherwise Word cannot open the document
+        var pictureProperties = new CTNonVisualDrawingProps();
+        pictureProperties.setId(RANDOM.nextInt(100_000));
+        pictureProperties.setName(filenameHint);
+        var nonVisual = new CTPictureNonVisual();
+        nonVisual.setCNvPr(pictureProperties);
+        nonVisual.setCNvPicPr(new CTNonVisualPictureProperties());
+        var picture = new Pic();
+        picture.setNvPicPr(nonVisual);
+        picture.setBlipFill(blipFill);
+        picture.setSpPr(shape);
+
+        var graphicData = new GraphicData();
+        graphicData.setUri("http://schemas.openxmlformats.org/drawingml/2006/picture");
+        graphicData.getAny()
+                   .add(picture);
+        var graphic = new Graphic();
+        graphic.setGraphicData(graphicData);
+
+        var locks = new CTGraphicalObjectFrameLocking();
+        locks.setNoChangeAspect(true);
+        var frameProperties = new CTNonVisualGraphicFrameProperties();
+        frameProperties.setGraphicFrameLocks(locks);
+        var drawingProperties = new CTNonVisualDrawingProps();
+        drawingProperties.setId(RANDOM.nextLong(100_000L));
+        drawingProperties.setName(filenameHint);
+        drawingProperties.setDescr(altText);
+
+        var inline = new Inline();
+        inline.setDistT(0L);
+        inline.setDistB(0L);
+        inline.setDistL(0L);
+        inline.setDistR(0L);
+        inline.setExtent(newSize(cx, cy));
+        inline.setEffectExtent(new CTEffectExtent());
+        inline.setDocPr(drawingProperties);
+        inline.setCNvGraphicFramePr(frameProperties);
+        inline.setGraphic(graphic);
+        return inline;
+    }
+
+    private static CTPositiveSize2D newSize(long cx, long cy) {
+        var size = new CTPositiveSize2D();
+        size.setCx(cx);
+        size.setCy(cy);
+        return size;
+    }
+
     /**
      * Creates a new Inline object for the given image part, filename hint, and alt text.
      *
@@ -2,22 +2,17 @@ package pro.verron.officestamper.utils;
 
 import jakarta.xml.bind.JAXBElement;
 import org.docx4j.TraversalUtil;
+import org.docx4j.XmlUtils;
 import org.docx4j.finders.CommentFinder;
-import org.docx4j.openpackaging.exceptions.Docx4JException;
-import org.docx4j.openpackaging.exceptions.InvalidFormatException;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.docx4j.openpackaging.parts.PartName;
-import org.docx4j.openpackaging.parts.WordprocessingML.CommentsPart;
 import org.docx4j.wml.*;
 import org.jvnet.jaxb2_commons.ppp.Child;
 import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.core.CommentUtil;
 import pro.verron.officestamper.core.TableCellUtil;
 
 import java.math.BigInteger;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.*;
 
 public final class WmlUtils {
     private WmlUtils() {
@@ -42,6 +37,17 @@ public final class WmlUtils {
         return commentFinder.getCommentElements();
     }
 
+    /// Extracts the comment anchors found in the given content only, at any depth.
+    ///
+    /// @param content the content to search, like the content of a single part.
+    ///
+    /// @return the comment range starts, range ends and references found, in document order.
+    public static List<Child> extractCommentElements(ContentAccessor content) {
+        var commentFinder = new CommentFinder();
+        TraversalUtil.visit(content, commentFinder);
+        return commentFinder.getCommentElements();
+    }
+
     /// Finds a comment with the given ID in the specified WordprocessingMLPackage document.
     ///
     /// @param document the WordprocessingMLPackage document to search for the comment
@@ -49,81 +55,96 @@ public final class WmlUtils {
     ///
     /// @return an Optional containing the Comment if found, or an empty Optional if not found.
     public static Optional<Comments.Comment> findComment(WordprocessingMLPackage document, BigInteger id) {
-        var name = getPartName("/word/comments.xml");
-        var parts = document.getParts();
-        var wordComments = (CommentsPart) parts.get(name);
-        var comments = getComments(wordComments);
-        return comments.getComment()
-                       .stream()
-                       .filter(idEqual(id))
-                       .findFirst();
+        return CommentUtil.findComment(document, id);
     }
 
-    private static PartName getPartName(String partName) {
-        try {
-            return new PartName(partName);
-        } catch (InvalidFormatException e) {
-            throw new OfficeStamperException(e);
+    /// Replaces some elements of a content by others, in a single pass over the content.
+    ///
+    /// The elements to add take the place of the first element to remove. The elements to remove are found by
+    /// identity, wrapped in a [JAXBElement] or not, and the other elements between them are kept after the added
+    /// ones. Only the range from the first to the last element to remove is rewritten, and the elements after it are
+    /// shifted at most once, where removing each element on its own would shift them for each, after searching it by
+    /// equality.
+    ///
+    /// @param content  the content holding the elements to remove.
+    /// @param toRemove the elements to remove, in any order.
+    /// @param toAdd    the elements to add, in order.
+    ///
+    /// @throws OfficeStamperException if none of the elements to remove is in the content.
+    public static void splice(List<Object> content, Collection<?> toRemove, List<?> toAdd) {
+        var removed = identitySet();
+        for (Object element : toRemove) removed.add(XmlUtils.unwrap(element));
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < content.size() && !removed.isEmpty(); i++) {
+            if (removed.remove(XmlUtils.unwrap(content.get(i)))) {
+                if (start < 0) start = i;
+                end = i;
+            }
         }
-    }
+        if (start < 0) throw new OfficeStamperException("None of the elements to remove is in the content");
 
-    private static Comments getComments(CommentsPart wordComments) {
-        try {
-            return wordComments.getContents();
-        } catch (Docx4JException e) {
-            throw new OfficeStamperException(e);
-        }
-    }
+        for (Object element : toRemove) removed.add(XmlUtils.unwrap(element));
+        var replacement = new ArrayList<>(toAdd.size() + end - start + 1);
+        replacement.addAll(toAdd);
+        for (Object element : content.subList(start, end + 1))
+            if (!removed.contains(XmlUtils.unwrap(element))) replacement.add(element);
 
-    private static Predicate<Comments.Comment> idEqual(BigInteger id) {
-        return comment -> {
-            var commentId = comment.getId();
-            return commentId.equals(id);
-        };
+        // set through the content itself, as the docx4j content lists give a parent to the elements set in them
+        int length = end - start + 1;
+        int common = Math.min(length, replacement.size());
+        for (int i = 0; i < common; i++) content.set(start + i, replacement.get(i));
+        if (replacement.size() > common) content.addAll(start + common,
+                replacement.subList(common, replacement.size()));
+        else content.subList(start + common, end + 1)
+                    .clear();
     }
 
     public static void remove(Child child) {
-        Object childParent = child.getParent();
-        if (Objects.requireNonNull(childParent) instanceof ContentAccessor parent) {
-            remove(parent, child);
-        } else if (childParent instanceof CTFootnotes parent) {
-            remove(parent, child);
-        } else if (childParent instanceof CTEndnotes parent) {
-            remove(parent, child);
-        } else {
-            throw new OfficeStamperException("Unexpected value: " + child.getParent());
-        }
-        if (child.getParent() instanceof Tc cell && TableCellUtil.hasNoParagraphOrTable(cell)) {
-            TableCellUtil.addEmptyParagraph(cell);
-        }
+        removeAll(List.of(child));
     }
 
-    @SuppressWarnings("SuspiciousMethodCalls")
-    private static void remove(CTFootnotes parent, Child child) {
-        parent.getFootnote()
-              .remove(child);
+    /// Removes children from their parents, compacting the content of each parent only once, however many of its
+    /// children are removed, where removing them one by one searches and shifts the content for each.
+    ///
+    /// A table cell left without paragraph nor table gets an empty paragraph, to stay valid.
+    ///
+    /// @param children the children to remove, with any parents.
+    ///
+    /// @throws OfficeStamperException if a child has a parent whose content is unknown.
+    public static void removeAll(Collection<? extends Child> children) {
+        var removals = new IdentityHashMap<Object, Set<Object>>();
+        for (Child child : children) {
+            removals.computeIfAbsent(Objects.requireNonNull(child.getParent()), parent -> identitySet())
+                    .add(child);
+        }
+        for (var removal : removals.entrySet()) {
+            var parent = removal.getKey();
+            removeAll(siblings(parent), removal.getValue());
+            if (parent instanceof Tc cell && TableCellUtil.hasNoParagraphOrTable(cell)) {
+                TableCellUtil.addEmptyParagraph(cell);
+            }
+        }
     }
 
-    @SuppressWarnings("SuspiciousMethodCalls")
-    private static void remove(CTEndnotes parent, Child child) {
-        parent.getEndnote()
-              .remove(child);
+    /// Removes elements from a content in a single pass, finding them by identity, wrapped in a [JAXBElement] or not.
+    ///
+    /// @param content  the content holding the elements.
+    /// @param elements the elements to remove.
+    public static void removeAll(List<?> content, Collection<?> elements) {
+        var removed = identitySet();
+        for (Object element : elements) removed.add(XmlUtils.unwrap(element));
+        content.removeIf(element -> removed.contains(XmlUtils.unwrap(element)));
     }
 
-    private static void remove(ContentAccessor parent, Child child) {
-        var siblings = parent.getContent();
-        var iterator = siblings.listIterator();
-        while (iterator.hasNext()) {
-            if (equals(iterator.next(), child)) {
-                iterator.remove();
-                break;
-            }
-        }
+    private static Set<Object> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
-    private static boolean equals(Object o1, Object o2) {
-        if (o1 instanceof JAXBElement<?> e1) o1 = e1.getValue();
-        if (o2 instanceof JAXBElement<?> e2) o2 = e2.getValue();
-        return Objects.equals(o1, o2);
+    private static List<?> siblings(Object parent) {
+        if (parent instanceof ContentAccessor accessor) return accessor.getContent();
+        if (parent instanceof CTFootnotes footnotes) return footnotes.getFootnote();
+        if (parent instanceof CTEndnotes endnotes) return endnotes.getEndnote();
+        throw new OfficeStamperException("Unexpected value: " + parent);
     }
 }
@@ -0,0 +1,199 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Comments;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.core.CommentUtil;
+import pro.verron.officestamper.utils.WmlFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.utils.WmlFactory.*;
+
+/// @author Joseph Verron
+class CommentLookupTest {
+
+    private static WordprocessingMLPackage documentWithComments(int count) {
+        var document = newWord();
+        var comments = new ArrayList<Comments.Comment>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(newComment(BigInteger.valueOf(i), "comment " + i));
+        }
+        CommentUtil.getCommentsPart(document.getParts())
+                   .orElseThrow()
+                   .setJaxbElement(newComments(comments));
+        return document;
+    }
+
+    @DisplayName("Comments are found by id, including after the comments list changed")
+    @Test
+    void lookup() {
+        var document = documentWithComments(10);
+        var found = CommentUtil.findComment(document, BigInteger.valueOf(7));
+        assertEquals(BigInteger.valueOf(7), found.orElseThrow().getId());
+        assertTrue(CommentUtil.findComment(document, BigInteger.valueOf(10)).isEmpty());
+
+        var commentsPart = CommentUtil.getCommentsPart(document.getParts()).orElseThrow();
+        commentsPart.getJaxbElement()
+                    .getComment()
+                    .add(newComment(BigInteger.valueOf(10), "late comment"));
+        assertTrue(CommentUtil.findComment(document, BigInteger.valueOf(10)).isPresent());
+    }
+
+    @DisplayName("Paragraph and run comments are resolved through the index")
+    @Test
+    void paragraphAndRunComments() {
+        var document = documentWithComments(3);
+        var paragraph = new P();
+        var run = WmlFactory.newRun("commented");
+        var content = paragraph.getContent();
+        content.add(newCommentRangeStart(BigInteger.ONE, paragraph));
+        content.add(run);
+        content.add(newCommentRangeEnd(BigInteger.ONE, paragraph));
+        run.setParent(paragraph);
+
+        var paragraphComments = CommentUtil.getCommentFor(content, document);
+        assertEquals(List.of(BigInteger.ONE), paragraphComments.stream().map(Comments.Comment::getId).toList());
+        assertEquals(BigInteger.ONE, CommentUtil.getCommentAround(run, document).orElseThrow().getId());
+    }
+
+    @DisplayName("Comments are not found through a stale index after the comments list changed and kept its size")
+    @Test
+    void lookupAfterRemoveAndAdd() {
+        var document = documentWithComments(10);
+        assertTrue(CommentUtil.findComment(document, BigInteger.valueOf(3)).isPresent());
+
+        var comments = CommentUtil.getCommentsPart(document.getParts()).orElseThrow().getJaxbElement().getComment();
+        comments.remove(3);
+        comments.add(newComment(BigInteger.valueOf(10), "replacing comment"));
+
+        assertTrue(CommentUtil.findComment(document, BigInteger.valueOf(3)).isEmpty());
+        assertEquals(BigInteger.valueOf(10), CommentUtil.findComment(document, BigInteger.valueOf(10)).orElseThrow().getId());
+        assertEquals(BigInteger.valueOf(9), CommentUtil.findComment(document, BigInteger.valueOf(9)).orElseThrow().getId());
+    }
+
+    /// Lookups used to scan the whole comments list, making a lookup per comment quadratic overall.
+    /// Indexed, looking up every comment reads each comment a bounded number of times.
+    @DisplayName("Looking up every comment of a heavily commented document stays linear")
+    @Test
+    void lookupCostIsFlat() {
+        var count = 10_000;
+        var list = new ReadCountingList<Comments.Comment>();
+        for (int i = 0; i < count; i++) list.add(newComment(BigInteger.valueOf(i), "comment " + i));
+        var document = documentWithComments(list);
+
+        for (int i = 0; i < count; i++) {
+            var id = BigInteger.valueOf(i);
+            assertEquals(id, CommentUtil.findComment(document, id).orElseThrow().getId());
+        }
+        assertTrue(list.reads <= 4L * count, "Read " + list.reads + " comments for " + count + " lookups");
+    }
+
+    @DisplayName("A missing comment is searched once, until the comments list changes")
+    @Test
+    void missesAreRemembered() {
+        var count = 10_000;
+        var list = new ReadCountingList<Comments.Comment>();
+        for (int i = 0; i < count; i++) list.add(newComment(BigInteger.valueOf(i), "comment " + i));
+        var document = documentWithComments(list);
+        var missing = BigInteger.valueOf(count);
+
+        for (int i = 0; i < count; i++) assertTrue(CommentUtil.findComment(document, missing).isEmpty());
+        assertTrue(list.reads <= 4L * count, "Read " + list.reads + " comments for " + count + " lookups");
+
+        list.add(newComment(missing, "late comment"));
+        assertEquals(missing, CommentUtil.findComment(document, missing).orElseThrow().getId());
+    }
+
+    /// Finding the comment around a run used to scan its paragraph for the run, making a lookup per run quadratic in
+    /// the size of the paragraph. Indexed, looking up every run reads each element of the paragraph a bounded number
+    /// of times.
+    @DisplayName("Looking up the comment around every run of a long paragraph stays linear")
+    @Test
+    void runLookupCostIsFlat() {
+        var count = 2_000;
+        var comments = new ArrayList<Comments.Comment>();
+        var elements = new ReadCountingList<Object>();
+        var parent = new P() {
+            @Override
+            public List<Object> getContent() {
+                return elements;
+            }
+        };
+        var runs = new ArrayList<R>();
+        for (int i = 0; i < count; i++) {
+            var id = BigInteger.valueOf(i);
+            comments.add(newComment(id, "comment " + i));
+            var run = WmlFactory.newRun("run " + i);
+            run.setParent(parent);
+            runs.add(run);
+            elements.add(newCommentRangeStart(id, parent));
+            elements.add(run);
+            elements.add(newCommentRangeEnd(id, parent));
+        }
+        var document = documentWithComments(comments);
+        elements.reads = 0;
+
+        for (int i = 0; i < count; i++) {
+            var comment = CommentUtil.getCommentAround(runs.get(i), document);
+            assertEquals(BigInteger.valueOf(i), comment.orElseThrow().getId());
+        }
+        assertTrue(elements.reads <= 10L * count, "Read " + elements.reads + " elements for " + count + " lookups");
+    }
+
+    private static WordprocessingMLPackage documentWithComments(List<Comments.Comment> list) {
+        var document = newWord();
+        CommentUtil.getCommentsPart(document.getParts())
+                   .orElseThrow()
+                   .setJaxbElement(new Comments() {
+                       @Override
+                       public List<Comment> getComment() {
+                           return list;
+                       }
+                   });
+        return document;
+    }
+
+    private static final class ReadCountingList<T>
+            extends ArrayList<T> {
+        private long reads;
+
+        @Override
+        public T get(int index) {
+            reads++;
+            return super.get(index);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            var iterator = super.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    reads++;
+                    return iterator.next();
+                }
+            };
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return StreamSupport.stream(Spliterators.spliterator(iterator(), size(), 0), false);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import pro.verron.officestamper.api.CompiledTemplate;
+import pro.verron.officestamper.preset.ExceptionResolvers;
+import pro.verron.officestamper.preset.OfficeStampers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.argumentSet;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standardWithPreprocessing;
+import static pro.verron.officestamper.test.ContextFactory.mapContextFactory;
+import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.TestUtils.getImage;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+import static pro.verron.officestamper.test.TestUtils.makeResource;
+
+/// @author Joseph Verron
+class CompiledTemplateTest {
+
+    static Stream<Arguments> factories() {
+        return Stream.of(argumentSet("obj", objectContextFactory()), argumentSet("map", mapContextFactory()));
+    }
+
+    private static String stampAndExtract(CompiledTemplate<WordprocessingMLPackage> template, Object context) {
+        try {
+            var out = IOStreams.getOutputStream();
+            template.stamp(context, out);
+            var document = WordprocessingMLPackage.load(IOStreams.getInputStream(out));
+            return new Stringifier(() -> document).stringify(document);
+        } catch (IOException | Docx4JException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @DisplayName("A compiled template gives the same result as a stamper, for each context")
+    @MethodSource("factories")
+    @ParameterizedTest
+    void sameAsStamper(ContextFactory factory) {
+        var config = standard().setExceptionResolver(ExceptionResolvers.passing());
+        var filename = "ExpressionReplacementInHeaderAndFooterTest.docx";
+        var compiled = OfficeStampers.compile(getResource(filename), config);
+        var stamper = new TestDocxStamper<>(config);
+
+        var homer = factory.imagedName("Homer Simpson", getImage(Path.of("butterfly.png")));
+        var marge = factory.imagedName("Marge Simpson", getImage(Path.of("butterfly.png")));
+        assertEquals(stamper.stampAndLoadAndExtract(getResource(filename), homer), stampAndExtract(compiled, homer));
+        assertEquals(stamper.stampAndLoadAndExtract(getResource(filename), marge), stampAndExtract(compiled, marge));
+        assertEquals(stamper.stampAndLoadAndExtract(getResource(filename), homer), stampAndExtract(compiled, homer));
+    }
+
+    @DisplayName("A compiled template can be stamped several times with comment processors")
+    @MethodSource("factories")
+    @ParameterizedTest
+    void repeatedStamps(ContextFactory factory) {
+        var compiled = OfficeStampers.compile(getResource("MultiStampTest.docx"), standard());
+        var expected = """
+                == Multi-Stamp-Test
+
+                |===
+                |The next row will repeat multiple times with a different name:
+
+                |Homer
+
+                |Marge
+
+
+                |===
+
+                """;
+        var context = factory.names("Homer", "Marge");
+        assertEquals(expected, stampAndExtract(compiled, context));
+        assertEquals(expected, stampAndExtract(compiled, context));
+    }
+
+    @DisplayName("A compiled template copies its parsed parts as a stamper loads them")
+    @MethodSource("factories")
+    @ParameterizedTest
+    void nestedRepeats(ContextFactory factory) {
+        var config = standardWithPreprocessing();
+        var filename = "RepeatDocPartNestingTest.docx";
+        var compiled = OfficeStampers.compile(getResource(filename), config);
+        var stamper = new TestDocxStamper<>(config);
+
+        var context = factory.schoolContext();
+        var expected = stamper.stampAndLoadAndExtract(getResource(filename), context);
+        assertEquals(expected, stampAndExtract(compiled, context));
+        assertEquals(expected, stampAndExtract(compiled, context));
+    }
+
+    @DisplayName("A compiled template resolves the paragraphs in and out of comments as a stamper")
+    @MethodSource("factories")
+    @ParameterizedTest
+    void commentedAndQuietParagraphs(ContextFactory factory) {
+        var config = standard();
+        var template = """
+                Hello ${name}
+                <1|>Hidden <11|>${name}<|11><|1><1|displayParagraphIf(false)>
+                <2|>Shown <12|>${name}<|12><|2><2|displayParagraphIf(true)>
+                Inline #{displayParagraphIf(true)}${name}
+                Bye ${name}""";
+        var compiled = OfficeStampers.compile(makeResource(template), config);
+        var stamper = new TestDocxStamper<>(config);
+
+        var homer = factory.name("Homer");
+        var bart = factory.name("Bart");
+        var expected = """
+                Hello Homer
+                Shown Homer
+                Inline Homer
+                Bye Homer
+                """;
+        assertEquals(expected, stamper.stampAndLoadAndExtract(makeResource(template), homer));
+        assertEquals(expected, stampAndExtract(compiled, homer));
+        assertEquals(stamper.stampAndLoadAndExtract(makeResource(template), bart), stampAndExtract(compiled, bart));
+    }
+}
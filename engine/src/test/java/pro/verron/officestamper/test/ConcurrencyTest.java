@@ -0,0 +1,148 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.CompiledTemplate;
+import pro.verron.officestamper.api.StreamStamper;
+import pro.verron.officestamper.preset.OfficeStampers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+
+/// @author Joseph Verron
+class ConcurrencyTest {
+
+    private static final ContextFactory FACTORY = objectContextFactory();
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 16;
+
+    private static String stamp(StreamStamper<WordprocessingMLPackage> stamper, Job job) {
+        try {
+            var out = new ByteArrayOutputStream();
+            stamper.stamp(getResource(Path.of(job.template())), job.context(), out);
+            return stringify(out);
+        } catch (Docx4JException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String stamp(CompiledTemplate<WordprocessingMLPackage> template, Job job) {
+        try {
+            var out = new ByteArrayOutputStream();
+            template.stamp(job.context(), out);
+            return stringify(out);
+        } catch (Docx4JException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String stringify(ByteArrayOutputStream out)
+            throws Docx4JException {
+        var document = WordprocessingMLPackage.load(new ByteArrayInputStream(out.toByteArray()));
+        return new Stringifier(() -> document).stringify(document);
+    }
+
+    private static List<Job> jobs() {
+        return List.of(new Job("MultiStampTest.docx", FACTORY.names("Homer", "Marge", "Bart")),
+                new Job("MultiStampTest.docx", FACTORY.names("Lisa", "Maggie")),
+                new Job("ConditionalDisplayTest.docx", FACTORY.name("Bart")),
+                new Job("ConditionalDisplayTest.docx", FACTORY.name("Homer")),
+                new Job("RepeatParagraphTest.docx", FACTORY.roles("Homer Simpson", "Dan Castellaneta")),
+                new Job("RepeatDocPartTest.docx", FACTORY.roles("Bart Simpson", "Nancy Cartwright")),
+                new Job("RepeatDocPartTest.docx", FACTORY.roles("Lisa Simpson", "Yeardley Smith")),
+                new Job("RepeatDocPartNestingTest.docx", FACTORY.schoolContext()));
+    }
+
+    /// Runs each job [#ROUNDS] times, all rounds released at once on [#THREADS] threads, and checks each result
+    /// against the expected result of its job. A deadlock fails the test instead of hanging it.
+    private static void assertConcurrentResults(List<Job> jobs, List<String> expected, Function<Job, String> stamp) {
+        assertTimeoutPreemptively(Duration.ofMinutes(2), () -> {
+            var executor = Executors.newFixedThreadPool(THREADS);
+            var start = new CountDownLatch(1);
+            try {
+                var futures = new ArrayList<Future<String>>();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (var job : jobs) {
+                        Callable<String> task = () -> {
+                            start.await();
+                            return stamp.apply(job);
+                        };
+                        futures.add(executor.submit(task));
+                    }
+                }
+                start.countDown();
+                for (int i = 0; i < futures.size(); i++) {
+                    assertEquals(expected.get(i % jobs.size()), futures.get(i).get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        });
+    }
+
+    @DisplayName("A single stamper gives the same results from many threads as sequentially")
+    @Test
+    void concurrentStamps() {
+        var stamper = OfficeStampers.docxStamper(standard());
+        var jobs = jobs();
+        var expected = jobs.stream()
+                           .map(job -> stamp(stamper, job))
+                           .toList();
+
+        assertConcurrentResults(jobs, expected, job -> stamp(stamper, job));
+    }
+
+    @DisplayName("A single stamper sharing a small repeated doc part pool gives the same results from many threads")
+    @Test
+    void concurrentStampsWithSharedRepeatDocPartExecutor() {
+        var jobs = jobs();
+        var expected = jobs.stream()
+                           .map(job -> stamp(OfficeStampers.docxStamper(standard()), job))
+                           .toList();
+
+        // fewer threads than the concurrent stamps, and than the outer items of the nested repeated doc parts
+        var pool = Executors.newFixedThreadPool(2);
+        try {
+            var stamper = OfficeStampers.docxStamper(standard().setRepeatDocPartExecutor(pool));
+            assertConcurrentResults(jobs, expected, job -> stamp(stamper, job));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @DisplayName("A single compiled template gives the same results from many threads as a stamper")
+    @Test
+    void concurrentCompiledStamps() {
+        var stamper = OfficeStampers.docxStamper(standard());
+        var jobs = jobs();
+        var expected = jobs.stream()
+                           .map(job -> stamp(stamper, job))
+                           .toList();
+        var templates = new HashMap<String, CompiledTemplate<WordprocessingMLPackage>>();
+        for (var job : jobs)
+            templates.computeIfAbsent(job.template(),
+                    name -> OfficeStampers.compile(getResource(Path.of(name)), standard()));
+
+        assertConcurrentResults(jobs, expected, job -> stamp(templates.get(job.template()), job));
+    }
+
+    private record Job(String template, Object context) {}
+}
@@ -1,8 +1,12 @@
 package pro.verron.officestamper.test;
 
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 import java.util.stream.Stream;
@@ -13,8 +17,10 @@ import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standa
 import static pro.verron.officestamper.test.ContextFactory.mapContextFactory;
 import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
 import static pro.verron.officestamper.test.TestUtils.getResource;
+import static pro.verron.officestamper.test.TestUtils.makeResource;
 
 class ConditionalDisplayTest {
+    private static final Logger log = LoggerFactory.getLogger(ConditionalDisplayTest.class);
 
     public static Stream<ContextFactory> factories() {
         return Stream.of(objectContextFactory(), mapContextFactory());
@@ -815,4 +821,99 @@ class ConditionalDisplayTest {
         var actual = stamper.stampAndLoadAndExtract(template, context);
         assertEquals(expected, actual);
     }
+
+    @DisplayName("Hiding paragraphs of a body removes them all at once")
+    @Test
+    void conditionalDisplayOfParagraphs() {
+        hideEveryOtherParagraph(20);
+    }
+
+    @DisplayName("Hiding many paragraphs of a long body removes them all at once")
+    @Tag("benchmark")
+    @Test
+    void conditionalDisplayOfManyParagraphs() {
+        var start = System.nanoTime();
+        hideEveryOtherParagraph(10_000);
+        log.info("Hid half of {} paragraphs in {} ms", 10_000, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @DisplayName("Hiding many paragraphs commented across several runs collects the comments once")
+    @Tag("benchmark")
+    @Test
+    void conditionalDisplayOfManyParagraphComments() {
+        var start = System.nanoTime();
+        // the inner range makes the outer comment wrap several runs, so it is processed on its paragraph
+        var line = "<%1$d|>Line <1000%1$05d|>%1$d<|1000%1$05d><|%1$d><%1$d|displayParagraphIf(%2$b)>\n";
+        hideEveryOtherParagraph(10_000, line);
+        log.info("Hid half of {} paragraphs in {} ms", 10_000, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void hideEveryOtherParagraph(int paragraphs) {
+        hideEveryOtherParagraph(paragraphs, "<%1$d|>Line %1$d<|%1$d><%1$d|displayParagraphIf(%2$b)>\n");
+    }
+
+    private static void hideEveryOtherParagraph(int paragraphs, String line) {
+        var template = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++)
+            template.append(line.formatted(i, i % 2 == 0));
+        var stamper = new TestDocxStamper<>(standard());
+
+        var actual = stamper.stampAndLoadAndExtract(makeResource(template.toString()), new Object());
+
+        var lines = actual.lines()
+                          .toList();
+        assertEquals(paragraphs / 2, lines.size());
+        assertEquals("Line 0", lines.get(0));
+        assertEquals("Line 2", lines.get(1));
+        assertEquals("Line " + (paragraphs - 2), lines.get(lines.size() - 1));
+    }
+
+    @DisplayName("A comment around a single run is processed once, on its run, and not again on its paragraph")
+    @Test
+    void runCommentProcessedOnce() {
+        var context = new Counter();
+        var template = makeResource("""
+                <1|>Shown once<|1><1|displayParagraphIf(next() == 1)>
+                Other line""");
+        var stamper = new TestDocxStamper<>(standard());
+
+        var actual = stamper.stampAndLoadAndExtract(template, context);
+
+        assertEquals("""
+                Shown once
+                Other line
+                """, actual);
+        assertEquals(1, context.count);
+    }
+
+    @DisplayName("A comment whose row was removed by an earlier comment is not processed")
+    @Test
+    void removedCommentNotProcessed() {
+        var context = new Counter();
+        var template = makeResource("""
+                Other line
+                |===
+                |<1|>Hidden <11|>row<|11><|1><1|displayTableRowIf(false)>
+                |<2|>Removed <12|>too<|12><|2><2|next()>
+                |===""");
+        var stamper = new TestDocxStamper<>(standard());
+
+        var actual = stamper.stampAndLoadAndExtract(template, context);
+
+        assertEquals("""
+                Other line
+                |===
+                
+                |===
+                """, actual);
+        assertEquals(0, context.count);
+    }
+
+    public static class Counter {
+        private int count;
+
+        public int next() {
+            return ++count;
+        }
+    }
 }
@@ -0,0 +1,160 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import pro.verron.officestamper.api.ExpressionCacheStatistics;
+import pro.verron.officestamper.api.ExpressionStatistics;
+import pro.verron.officestamper.api.ExpressionStatistics.Compilation;
+import pro.verron.officestamper.core.DocxStamper;
+import pro.verron.officestamper.core.ExpressionCache;
+import pro.verron.officestamper.preset.OfficeStampers;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+
+/// @author Joseph Verron
+class ExpressionCacheTest {
+
+    @DisplayName("Parsed expressions are reused across lookups")
+    @Test
+    void hits() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 10);
+        var first = cache.get("name");
+        var second = cache.get("name");
+        assertSame(first, second);
+        assertEquals(new ExpressionCacheStatistics(1, 1, 0, 1), cache.statistics());
+    }
+
+    @DisplayName("The oldest expressions are evicted past the maximum size")
+    @Test
+    void evictions() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 2);
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+        cache.get("c");
+        cache.get("a");
+        assertEquals(new ExpressionCacheStatistics(1, 4, 2, 2), cache.statistics());
+    }
+
+    @DisplayName("A zero-sized cache parses every expression")
+    @Test
+    void disabled() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 0);
+        assertNotSame(cache.get("name"), cache.get("name"));
+        assertEquals(new ExpressionCacheStatistics(0, 2, 0, 0), cache.statistics());
+    }
+
+    @DisplayName("The expression cache is shared across the stamps of a stamper")
+    @Test
+    void sharedAcrossStamps() {
+        var stamper = new DocxStamper(standard());
+        var context = objectContextFactory().names("Homer", "Marge", "Bart");
+
+        stamper.stamp(getResource("MultiStampTest.docx"), context, new ByteArrayOutputStream());
+        var afterFirst = stamper.expressionCacheStatistics()
+                                .orElseThrow();
+        stamper.stamp(getResource("MultiStampTest.docx"), context, new ByteArrayOutputStream());
+        var afterSecond = stamper.expressionCacheStatistics()
+                                .orElseThrow();
+
+        assertTrue(afterFirst.hits() > 0, "repeated rows should hit the cache");
+        assertEquals(afterFirst.misses(), afterSecond.misses(), "no new expression to parse on the second stamp");
+        assertTrue(afterSecond.hits() > afterFirst.hits());
+    }
+
+    @DisplayName("Repeated document parts are stamped with the cache of the enclosing stamper")
+    @Test
+    void sharedWithRepeatedDocParts() {
+        var stamper = new DocxStamper(standard());
+        var context = objectContextFactory().schoolContext();
+
+        stamper.stamp(getResource("RepeatDocPartNestingTest.docx"), context, new ByteArrayOutputStream());
+        var afterFirst = stamper.expressionCacheStatistics()
+                                .orElseThrow();
+        stamper.stamp(getResource("RepeatDocPartNestingTest.docx"), context, new ByteArrayOutputStream());
+        var afterSecond = stamper.expressionCacheStatistics()
+                                .orElseThrow();
+
+        assertTrue(stamper.expressionStatistics()
+                          .stream()
+                          .anyMatch(s -> s.evaluations() >= 2 * 45), "each of the 45 students is stamped twice");
+        assertEquals(afterFirst.misses(), afterSecond.misses(), "no new expression to parse on the second stamp");
+    }
+
+    @DisplayName("The statistics are readable from the stampers and templates of the public API")
+    @Test
+    void publicStatistics() {
+        var context = objectContextFactory().names("Homer", "Marge", "Bart");
+        var stamper = OfficeStampers.docxStamper(standard());
+        stamper.stamp(getResource("MultiStampTest.docx"), context, new ByteArrayOutputStream());
+        assertTrue(stamper.expressionCacheStatistics()
+                          .orElseThrow()
+                          .hits() > 0);
+        assertFalse(stamper.expressionStatistics()
+                           .isEmpty());
+
+        var template = OfficeStampers.compile(getResource("MultiStampTest.docx"), standard());
+        template.stamp(context, new ByteArrayOutputStream());
+        assertTrue(template.expressionCacheStatistics()
+                           .orElseThrow()
+                           .hits() > 0);
+        assertFalse(template.expressionStatistics()
+                            .isEmpty());
+    }
+
+    @DisplayName("Hot expressions get compiled after the threshold")
+    @Test
+    void compiles() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 10, 2);
+        var context = new StandardEvaluationContext("Homer");
+        assertEquals(5, cache.get("length()").evaluate(context));
+        assertEquals(Compilation.INTERPRETED, cache.get("length()").statistics().compilation());
+        assertEquals(5, cache.get("length()").evaluate(context));
+        assertEquals(5, cache.get("length()").evaluate(context));
+        assertEquals(new ExpressionStatistics("length()", 3, Compilation.COMPILED, 0),
+                cache.get("length()").statistics());
+    }
+
+    @DisplayName("Compiled expressions fall back to interpretation when they fail")
+    @Test
+    void fallsBack() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 10, 1);
+        var expression = cache.get("toString()");
+        assertEquals("Homer", expression.evaluate(new StandardEvaluationContext("Homer")));
+        assertEquals(Compilation.COMPILED, expression.statistics().compilation());
+        assertEquals("42", expression.evaluate(new StandardEvaluationContext(42)));
+        assertEquals(new ExpressionStatistics("toString()", 2, Compilation.REVERTED, 1),
+                expression.statistics());
+    }
+
+    @DisplayName("Expressions that cannot compile stay interpreted")
+    @Test
+    void notCompilable() {
+        var cache = new ExpressionCache(new SpelExpressionParser(), 10, 1);
+        var expression = cache.get("{1, 2, 3}.?[#this > 1]");
+        assertEquals(List.of(2, 3), expression.evaluate(new StandardEvaluationContext()));
+        assertEquals(List.of(2, 3), expression.evaluate(new StandardEvaluationContext()));
+        assertEquals(Compilation.NOT_COMPILABLE, expression.statistics().compilation());
+    }
+
+    @DisplayName("The stamper reports which expressions compiled")
+    @Test
+    void stamperStatistics() {
+        var stamper = new DocxStamper(standard().setExpressionCompileThreshold(2));
+        var context = objectContextFactory().names("Homer", "Marge", "Bart");
+        stamper.stamp(getResource("MultiStampTest.docx"), context, new ByteArrayOutputStream());
+        var statistics = stamper.expressionStatistics();
+        assertFalse(statistics.isEmpty());
+        assertTrue(statistics.stream()
+                             .anyMatch(s -> s.evaluations() >= 2 && s.compilation() != Compilation.INTERPRETED),
+                statistics::toString);
+    }
+}
@@ -0,0 +1,113 @@
+package pro.verron.officestamper.test;
+
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.core.ImageHeader;
+import pro.verron.officestamper.core.ImageRegistry;
+import pro.verron.officestamper.utils.ThrowingSupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// @author Joseph Verron
+class ImageHeaderTest {
+
+    @DisplayName("Image headers give the same type, size and resolution as docx4j probing")
+    @ParameterizedTest
+    @ValueSource(strings = {"butterfly.png", "map.jpg", "monalisa.jpg"})
+    void sameAsDocx4j(String name)
+            throws Exception {
+        var path = Path.of("..", "test", "sources", name);
+        var expected = BinaryPartAbstractImage.getImageInfo(path.toUri()
+                                                                .toURL());
+        ImageInfo actual;
+        try (var in = Files.newInputStream(path)) {
+            actual = ImageHeader.probe(in)
+                                .orElseThrow()
+                                .toImageInfo();
+        }
+        assertEquals(expected.getMimeType(), actual.getMimeType());
+        assertEquals(expected.getSize()
+                             .getWidthPx(),
+                actual.getSize()
+                      .getWidthPx());
+        assertEquals(expected.getSize()
+                             .getHeightPx(),
+                actual.getSize()
+                      .getHeightPx());
+        assertEquals(expected.getSize()
+                             .getWidthMpt(),
+                actual.getSize()
+                      .getWidthMpt());
+        assertEquals(expected.getSize()
+                             .getHeightMpt(),
+                actual.getSize()
+                      .getHeightMpt());
+    }
+
+    @DisplayName("GIF and BMP headers are read")
+    @Test
+    void gifAndBmp() {
+        var gif = new byte[]{'G', 'I', 'F', '8', '9', 'a', 0x20, 0x01, 0x10, 0x00};
+        assertEquals(Optional.of(new ImageHeader("image/gif", 288, 16, 72, 72)),
+                ImageHeader.probe(new ByteArrayInputStream(gif)));
+
+        var bmp = new byte[54];
+        bmp[0] = 'B';
+        bmp[1] = 'M';
+        bmp[14] = 40;
+        bmp[18] = 100; // width
+        bmp[22] = 50; // height
+        bmp[38] = (byte) 0xC4; // 3780 pixels per meter, 96 dpi
+        bmp[39] = 0x0E;
+        bmp[42] = (byte) 0xC4;
+        bmp[43] = 0x0E;
+        var header = ImageHeader.probe(new ByteArrayInputStream(bmp))
+                                .orElseThrow();
+        assertEquals(100, header.width());
+        assertEquals(50, header.height());
+        assertEquals(96, header.dpiX(), 0.1);
+    }
+
+    @DisplayName("Unknown image formats are left to docx4j")
+    @Test
+    void unknownFormat() {
+        var header = ImageHeader.probe(new ByteArrayInputStream(new byte[]{'<', 's', 'v', 'g', '>'}));
+        assertEquals(Optional.empty(), header);
+    }
+
+    @DisplayName("Images with the same content are probed once")
+    @Test
+    void cachedByHash()
+            throws IOException {
+        // trailing bytes make the content unique, so no other test has probed it yet
+        var bytes = Files.readAllBytes(Path.of("..", "test", "sources", "butterfly.png"));
+        bytes = Arrays.copyOf(bytes, bytes.length + Long.BYTES);
+        ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES)
+                  .putLong(System.nanoTime());
+        var hash = ImageRegistry.hash(bytes);
+        var opened = new AtomicInteger();
+        var content = bytes;
+        ThrowingSupplier<InputStream> source = () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        };
+        var first = ImageHeader.probe(hash, source);
+        var second = ImageHeader.probe(hash, source);
+        assertEquals(first, second);
+        assertEquals(1, opened.get());
+    }
+}
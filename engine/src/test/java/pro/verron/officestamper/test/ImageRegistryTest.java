@@ -0,0 +1,178 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.dml.wordprocessingDrawing.Inline;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.WordprocessingML.BinaryPartAbstractImage;
+import org.docx4j.wml.Drawing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.OfficeStamperConfiguration;
+import pro.verron.officestamper.core.DocumentUtil;
+import pro.verron.officestamper.core.ImageRegistry;
+import pro.verron.officestamper.preset.OfficeStampers;
+import pro.verron.officestamper.utils.WmlFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.TestUtils.getImage;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+import static pro.verron.officestamper.test.TestUtils.makeResource;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class ImageRegistryTest {
+
+    private static long countImageParts(WordprocessingMLPackage document) {
+        return document.getParts()
+                       .getParts()
+                       .values()
+                       .stream()
+                       .filter(BinaryPartAbstractImage.class::isInstance)
+                       .count();
+    }
+
+    private static WordprocessingMLPackage stamp(OfficeStamperConfiguration configuration, InputStream template, Object context)
+            throws Docx4JException {
+        var out = new ByteArrayOutputStream();
+        OfficeStampers.docxStamper(configuration)
+                      .stamp(template, context, out);
+        return WordprocessingMLPackage.load(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @DisplayName("An image content is stored in a single part, referenced through a single relationship")
+    @Test
+    void sameContent()
+            throws IOException {
+        var document = newWord();
+        var mainPart = document.getMainDocumentPart();
+        var butterfly = getResource("butterfly.png").readAllBytes();
+        var map = getResource("map.jpg").readAllBytes();
+        var registry = ImageRegistry.of(document);
+
+        var first = registry.reference(mainPart, ImageRegistry.hash(butterfly), butterfly);
+        var second = ImageRegistry.of(document)
+                                  .reference(mainPart, ImageRegistry.hash(butterfly.clone()), butterfly.clone());
+        var other = registry.reference(mainPart, ImageRegistry.hash(map), map);
+
+        assertSame(first.part(), second.part());
+        assertEquals(first.relationshipId(), second.relationshipId());
+        assertNotSame(first.part(), other.part());
+        assertEquals(2, countImageParts(document));
+        assertEquals(2,
+                mainPart.getRelationshipsPart()
+                        .getRelationships()
+                        .getRelationship()
+                        .stream()
+                        .filter(r -> r.getType()
+                                      .endsWith("/image"))
+                        .count());
+    }
+
+    @DisplayName("Shared images are shown through their relationship, sized as docx4j sizes them")
+    @Test
+    void sharedImageInline()
+            throws Exception {
+        var document = newWord();
+        var mainPart = document.getMainDocumentPart();
+        var butterfly = getResource("butterfly.png").readAllBytes();
+
+        var reference = ImageRegistry.of(document)
+                                     .reference(mainPart, ImageRegistry.hash(butterfly), butterfly);
+        var run = WmlFactory.newRun(1000,
+                reference.part(),
+                reference.imageInfo(),
+                reference.relationshipId(),
+                "butterfly",
+                "a butterfly");
+        var expected = BinaryPartAbstractImage.createImagePart(document, butterfly)
+                                              .createImageInline("butterfly", "a butterfly", 1, 2, false, 1000);
+
+        var inline = (Inline) ((Drawing) run.getContent()
+                                            .get(0)).getAnchorOrInline()
+                                                    .get(0);
+        assertSame(reference.part(),
+                mainPart.getRelationshipsPart()
+                        .getPart(reference.relationshipId()));
+        assertEquals(reference.relationshipId(),
+                inline.getGraphic()
+                      .getGraphicData()
+                      .getPic()
+                      .getBlipFill()
+                      .getBlip()
+                      .getEmbed());
+        assertEquals(expected.getExtent()
+                             .getCx(),
+                inline.getExtent()
+                      .getCx());
+        assertEquals(expected.getExtent()
+                             .getCy(),
+                inline.getExtent()
+                      .getCy());
+    }
+
+    @DisplayName("Repeating an image many times embeds it once")
+    @Test
+    void repeatedImage()
+            throws Docx4JException {
+        var template = makeResource("${monalisa} ${monalisa} ${monalisa} ${monalisa}");
+        var context = objectContextFactory().image(getImage(Path.of("monalisa.jpg")));
+        var document = stamp(standard(), template, context);
+        assertEquals(1, countImageParts(document));
+    }
+
+    @DisplayName("Repeated doc parts reference the images of the template instead of importing them again")
+    @Test
+    void repeatedDocPartImages()
+            throws Docx4JException {
+        var template = Path.of("RepeatDocPartWithImagesInSourceTest.docx");
+        var expected = countImageParts(WordprocessingMLPackage.load(getResource(template)));
+        var context = objectContextFactory().subDocPartContext();
+        var document = stamp(standard(), getResource(template), context);
+        assertEquals(expected, countImageParts(document));
+    }
+
+    @DisplayName("A registry indexed beforehand reuses the images of the document without reading them")
+    @Test
+    void precomputedIndex()
+            throws Exception {
+        var document = newWord();
+        var mainPart = document.getMainDocumentPart();
+        var butterfly = getResource("butterfly.png").readAllBytes();
+        var image = BinaryPartAbstractImage.createImagePart(document, mainPart, butterfly);
+        var index = ImageRegistry.indexImages(document);
+        image.setBinaryData(new byte[0]);
+
+        var registry = ImageRegistry.of(document);
+        registry.index(index);
+        var reference = registry.reference(mainPart, ImageRegistry.hash(butterfly), butterfly);
+
+        assertEquals(ImageRegistry.hash(butterfly),
+                index.get(image.getPartName())
+                     .hash());
+        assertSame(image, reference.part());
+        assertEquals(1, countImageParts(document));
+    }
+
+    @DisplayName("Sub documents copied from a document only import the images it does not hold yet")
+    @Test
+    void subDocumentImages()
+            throws Docx4JException {
+        var template = Path.of("RepeatDocPartWithImagesInSourceTest.docx");
+        var target = WordprocessingMLPackage.load(getResource(template));
+        var expected = countImageParts(target);
+        for (int i = 0; i < 3; i++) {
+            var subDocument = WordprocessingMLPackage.load(getResource(template));
+            var replacements = DocumentUtil.walkObjectsAndImportImages(subDocument, target);
+            assertFalse(replacements.isEmpty());
+        }
+        assertEquals(expected, countImageParts(target));
+    }
+}
@@ -0,0 +1,148 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import pro.verron.officestamper.core.Invoker;
+import pro.verron.officestamper.core.Invokers;
+import pro.verron.officestamper.core.ReflectionExecutor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// @author Joseph Verron
+class InvokersTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InvokersTest.class);
+    private static final StandardEvaluationContext CONTEXT = new StandardEvaluationContext();
+    private static final int CALLS = 5_000_000;
+
+    private static List<TypeDescriptor> types(Class<?>... classes) {
+        return Arrays.stream(classes)
+                     .map(TypeDescriptor::valueOf)
+                     .toList();
+    }
+
+    @DisplayName("Resolved executors are reused for the same name and argument classes")
+    @Test
+    void cached()
+            throws AccessException {
+        var invokers = new Invokers(Stream.of(new Invoker("twice", List.of(CharSequence.class),
+                (context, target, arguments) -> new TypedValue(
+                        arguments[0].toString()
+                                    .repeat(2)))));
+
+        var first = invokers.resolve(CONTEXT, this, "twice", types(String.class));
+        var second = invokers.resolve(CONTEXT, this, "twice", types(String.class));
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals("abab", first.execute(CONTEXT, this, "ab")
+                                  .getValue());
+
+        var unknownArgument = Arrays.asList((TypeDescriptor) null);
+        assertSame(first, invokers.resolve(CONTEXT, this, "twice", unknownArgument));
+    }
+
+    @DisplayName("Calls matching no method keep resolving to nothing")
+    @Test
+    void misses() {
+        var invokers = new Invokers(Stream.of(new Invoker("twice", List.of(CharSequence.class),
+                (context, target, arguments) -> null)));
+        assertNull(invokers.resolve(CONTEXT, this, "twice", types(Integer.class)));
+        assertNull(invokers.resolve(CONTEXT, this, "twice", types(Integer.class)));
+        assertNull(invokers.resolve(CONTEXT, this, "other", types(String.class)));
+        assertNull(invokers.resolve(CONTEXT, this, "twice", types(String.class, String.class)));
+    }
+
+    @DisplayName("Exposed methods are invoked through method handles, failures wrapped like reflection")
+    @Test
+    void methodHandles()
+            throws AccessException, NoSuchMethodException {
+        var length = new Invoker(new StringBuilder("abc"), CharSequence.class.getMethod("length"));
+        assertEquals("MethodHandleExecutor",
+                length.executor()
+                      .getClass()
+                      .getSimpleName());
+        assertEquals(3,
+                length.executor()
+                      .execute(CONTEXT, this)
+                      .getValue());
+
+        var next = new Invoker(Collections.emptyIterator(), Iterator.class.getMethod("next"));
+        var exception = assertThrows(AccessException.class,
+                () -> next.executor()
+                          .execute(CONTEXT, this));
+        var cause = assertInstanceOf(InvocationTargetException.class, exception.getCause());
+        assertInstanceOf(NoSuchElementException.class, cause.getCause());
+    }
+
+    @DisplayName("Errors and argument mismatches are not reported as failures of the invoked method")
+    @Test
+    void methodHandleMisuses()
+            throws AccessException, NoSuchMethodException {
+        Supplier<Object> failing = () -> {
+            throw new AssertionError("failing");
+        };
+        var get = new Invoker(failing, Supplier.class.getMethod("get"));
+        assertThrows(AssertionError.class,
+                () -> get.executor()
+                         .execute(CONTEXT, this));
+
+        var charAt = new Invoker(new StringBuilder("abc"), CharSequence.class.getMethod("charAt", int.class));
+        assertEquals('b',
+                charAt.executor()
+                      .execute(CONTEXT, this, (short) 1)
+                      .getValue());
+        assertThrows(IllegalArgumentException.class,
+                () -> charAt.executor()
+                            .execute(CONTEXT, this, "one"));
+    }
+
+    @DisplayName("Method handle executors against reflection executors, on the same calls")
+    @Tag("benchmark")
+    @Test
+    void methodHandlesAgainstReflection()
+            throws AccessException, NoSuchMethodException {
+        var method = CharSequence.class.getMethod("charAt", int.class);
+        var object = new StringBuilder("abc");
+        var handle = new Invoker(object, method).executor();
+        var reflection = new ReflectionExecutor(object, method);
+        assertEquals("MethodHandleExecutor",
+                handle.getClass()
+                      .getSimpleName());
+        for (int round = 0; round < 3; round++) {
+            var handleNanos = time(handle);
+            var reflectionNanos = time(reflection);
+            log.info("{} calls: method handle {} ms, reflection {} ms",
+                    CALLS,
+                    handleNanos / 1_000_000,
+                    reflectionNanos / 1_000_000);
+        }
+    }
+
+    private static long time(MethodExecutor executor)
+            throws AccessException {
+        var start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals('b',
+                    executor.execute(CONTEXT, executor, 1)
+                            .getValue());
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,96 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.TextUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.docx4j.wml.RPr;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.preset.Preprocessors;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.utils.WmlFactory.*;
+
+/// @author Joseph Verron
+class MergeSimilarRunsTest {
+
+    @DisplayName("Consecutive runs of the same style are merged into the first one")
+    @Test
+    void mergesConsecutiveRuns() {
+        var bold = new RPr();
+        var paragraph = newParagraph(List.of(run("Hel", null),
+                run("lo", null),
+                run(", ", bold),
+                run("Wor", bold),
+                run("ld", bold)));
+        paragraph.getContent()
+                 .add(newCommentRangeStart(BigInteger.ONE, paragraph));
+        paragraph.getContent()
+                 .add(run("!", bold));
+        var document = wordWith(paragraph);
+
+        Preprocessors.mergeSimilarRuns()
+                     .process(document);
+
+        var content = paragraph.getContent();
+        assertEquals(4, content.size());
+        assertEquals("Hello", TextUtils.getText(content.get(0)));
+        assertEquals(", World", TextUtils.getText(content.get(1)));
+        assertEquals("!", TextUtils.getText(content.get(3)));
+        assertEquals(paragraph, ((R) content.get(0)).getParent());
+    }
+
+    @DisplayName("Runs are merged even when their parent is not set, as in content built programmatically")
+    @Test
+    void mergesRunsWithoutParent() {
+        var paragraph = newParagraph(List.of(run("Hel", null), run("lo", null)));
+        for (Object element : paragraph.getContent()) ((R) element).setParent(null);
+        var document = wordWith(paragraph);
+
+        Preprocessors.mergeSimilarRuns()
+                     .process(document);
+
+        assertEquals(1,
+                paragraph.getContent()
+                         .size());
+        assertEquals("Hello", TextUtils.getText(paragraph));
+    }
+
+    @DisplayName("Merging tens of thousands of tiny runs is a single pass over their paragraph")
+    @Test
+    void mergesManyTinyRuns() {
+        var runs = 50_000;
+        var styles = List.of(new RPr(), new RPr());
+        var content = new ArrayList<Object>(runs);
+        for (int i = 0; i < runs; i++) content.add(run("x", styles.get(i / 1_000 % 2)));
+        var paragraph = newParagraph(content);
+        var document = wordWith(paragraph);
+
+        Preprocessors.mergeSimilarRuns()
+                     .process(document);
+
+        assertEquals(runs / 1_000,
+                paragraph.getContent()
+                         .size());
+        assertEquals("x".repeat(runs), TextUtils.getText(paragraph));
+    }
+
+    private static WordprocessingMLPackage wordWith(P paragraph) {
+        var document = newWord();
+        document.getMainDocumentPart()
+                .getContent()
+                .add(paragraph);
+        return document;
+    }
+
+    private static R run(String text, RPr style) {
+        var run = newRun(text);
+        run.setRPr(style);
+        return run;
+    }
+}
@@ -0,0 +1,120 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.wml.R;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.lang.Nullable;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.ObjectResolver;
+import pro.verron.officestamper.api.OfficeStamperException;
+import pro.verron.officestamper.core.ObjectResolverRegistry;
+import pro.verron.officestamper.core.Placeholders;
+import pro.verron.officestamper.core.TextualDocxPart;
+import pro.verron.officestamper.preset.Resolvers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.docx4j.TextUtils.getText;
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.utils.WmlFactory.newRun;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class ObjectResolverRegistryTest {
+
+    private static final DocxPart PART = new TextualDocxPart(newWord());
+
+    private static String resolve(ObjectResolverRegistry registry, @Nullable Object object) {
+        return getText(registry.resolve(PART, Placeholders.raw("${value}"), object));
+    }
+
+    @DisplayName("Resolvers are still tried in registration order")
+    @Test
+    void ordering() {
+        var probing = new Counting("probing", Integer.class, null);
+        var declared = new Counting("declared", Number.class, Set.of(Number.class));
+        var registry = new ObjectResolverRegistry(List.of(probing, declared, Resolvers.fallback()));
+
+        assertEquals("probing", resolve(registry, 1));
+        assertEquals("declared", resolve(registry, 1L));
+        assertEquals("declared", resolve(registry, 2L));
+        assertEquals("text", resolve(registry, "text"));
+        assertEquals(4, probing.probes.get(), "opted-out resolvers are asked for every value");
+        assertEquals(0, declared.probes.get(), "resolvers declaring their types are never asked");
+    }
+
+    @DisplayName("Null values are still checked with canResolve")
+    @Test
+    void nulls() {
+        var registry = new ObjectResolverRegistry(List.of(Resolvers.fallback(), Resolvers.nullToDefault("nothing")));
+        assertEquals("nothing", resolve(registry, null));
+        assertEquals("42", resolve(registry, 42));
+    }
+
+    @DisplayName("Values no resolver handles are still reported")
+    @Test
+    void unresolved() {
+        var registry = new ObjectResolverRegistry(List.of(new Counting("declared", Number.class, Set.of(Number.class))));
+        assertThrows(OfficeStamperException.class, () -> resolve(registry, "text"));
+        assertThrows(OfficeStamperException.class, () -> resolve(registry, "text"));
+    }
+
+    @DisplayName("Subclasses narrowing canResolve without declaring their own types are still asked")
+    @Test
+    void narrowedSubclass() {
+        var onlyNumbers = new AnyObject() {
+            @Override
+            public boolean canResolve(@Nullable Object object) {
+                return object instanceof Number;
+            }
+        };
+        var registry = new ObjectResolverRegistry(List.of(onlyNumbers, new Counting("other", Object.class, null)));
+        assertEquals("any", resolve(registry, 42));
+        assertEquals("other", resolve(registry, "text"));
+    }
+
+    private static class AnyObject
+            implements ObjectResolver {
+        @Override public R resolve(DocxPart document, String expression, Object object) {
+            return newRun("any");
+        }
+
+        @Override public boolean canResolve(@Nullable Object object) {
+            return object != null;
+        }
+
+        @Override public Optional<Set<Class<?>>> resolvedTypes() {
+            return Optional.of(Set.of(Object.class));
+        }
+    }
+
+    private static final class Counting
+            implements ObjectResolver {
+        private final String text;
+        private final Class<?> type;
+        @Nullable private final Set<Class<?>> resolvedTypes;
+        private final AtomicInteger probes = new AtomicInteger();
+
+        private Counting(String text, Class<?> type, @Nullable Set<Class<?>> resolvedTypes) {
+            this.text = text;
+            this.type = type;
+            this.resolvedTypes = resolvedTypes;
+        }
+
+        @Override public R resolve(DocxPart document, String expression, Object object) {
+            return newRun(text);
+        }
+
+        @Override public boolean canResolve(@Nullable Object object) {
+            probes.incrementAndGet();
+            return type.isInstance(object);
+        }
+
+        @Override public Optional<Set<Class<?>>> resolvedTypes() {
+            return Optional.ofNullable(resolvedTypes);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.wml.P;
+import org.docx4j.wml.R;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.Placeholder;
+import pro.verron.officestamper.core.Placeholders;
+import pro.verron.officestamper.core.StandardParagraph;
+import pro.verron.officestamper.core.TextualDocxPart;
+
+import java.util.LinkedHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.utils.WmlFactory.newRun;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class ParagraphReplacementTest {
+
+    private static StandardParagraph paragraph(String... runs) {
+        var p = new P();
+        for (String run : runs) p.getContent()
+                                 .add(newRun(run));
+        return StandardParagraph.from(new TextualDocxPart(newWord()), p);
+    }
+
+    private static void replaceAll(StandardParagraph paragraph) {
+        var replacements = new LinkedHashMap<Placeholder, R>();
+        for (var placeholder : Placeholders.findVariables(paragraph))
+            replacements.put(placeholder, newRun(placeholder.content()
+                                                            .toUpperCase()));
+        paragraph.replaceAll(replacements);
+    }
+
+    @DisplayName("All placeholders of a paragraph are replaced in a single batch")
+    @Test
+    void batch() {
+        var paragraph = paragraph("${a} and ${b", "} then ${a}, ", "${c}${d}", " end");
+        replaceAll(paragraph);
+        assertEquals("A and B then A, CD end", paragraph.asString());
+    }
+
+    @DisplayName("Placeholders whose replacement looks like a placeholder are replaced once")
+    @Test
+    void replacementLooksLikePlaceholder() {
+        var paragraph = paragraph("${a} ${a}");
+        var placeholders = Placeholders.findVariables(paragraph);
+        var replacements = new LinkedHashMap<Placeholder, R>();
+        replacements.put(placeholders.get(0), newRun("${a}"));
+        replacements.put(placeholders.get(1), newRun("x"));
+        paragraph.replaceAll(replacements);
+        assertEquals("${a} x", paragraph.asString());
+    }
+
+    @DisplayName("Many placeholders are replaced without reindexing the runs for each one")
+    @Test
+    void manyPlaceholders() {
+        var runs = new String[400];
+        var expected = new StringBuilder();
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = "${v%d}".formatted(i);
+            expected.append("V%d".formatted(i));
+        }
+        var paragraph = paragraph(runs);
+        replaceAll(paragraph);
+        assertEquals(expected.toString(), paragraph.asString());
+    }
+}
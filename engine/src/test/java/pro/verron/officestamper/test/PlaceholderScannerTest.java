@@ -0,0 +1,68 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.wml.P;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.api.Placeholder;
+import pro.verron.officestamper.core.Placeholders;
+import pro.verron.officestamper.core.StandardParagraph;
+import pro.verron.officestamper.core.StandardPlaceholder;
+import pro.verron.officestamper.core.TextualDocxPart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.utils.WmlFactory.newRun;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class PlaceholderScannerTest {
+
+    private static List<String> regex(String regex, String text) {
+        var matcher = Pattern.compile(regex, Pattern.DOTALL)
+                             .matcher(text);
+        var matches = new ArrayList<String>();
+        while (matcher.find()) matches.add(matcher.group());
+        return matches;
+    }
+
+    private static List<String> expressions(List<Placeholder> placeholders) {
+        return placeholders.stream()
+                           .map(Placeholder::expression)
+                           .toList();
+    }
+
+    @DisplayName("The scanner finds the same placeholders as the former regular expressions")
+    @ParameterizedTest
+    @ValueSource(strings = {"", "no placeholder", "${a}", "#{a}", "${a} and #{b}", "$${a}", "##{a}", "${}", "${a",
+            "${a #{b} c}", "#{a ${b} c}", "${a}}${b}", "${a\nb}", "$ {a}", "${${a}}", "#{${a}#{b}}", "$#{a}", "{}"})
+    void sameAsRegex(String text) {
+        assertEquals(regex("\\$\\{(.*?)}", text), expressions(Placeholders.findVariables(text)));
+        assertEquals(regex("#\\{(.*?)}", text), expressions(Placeholders.findProcessors(text)));
+    }
+
+    @DisplayName("Placeholders spanning runs are found with the run and offset they start at")
+    @Test
+    void acrossRuns() {
+        var p = new P();
+        p.getContent()
+         .addAll(List.of(newRun("Hello $"), newRun("{name"), newRun("} from #{proc}"), newRun("${x}")));
+        var paragraph = StandardParagraph.from(new TextualDocxPart(newWord()), p);
+
+        var variables = Placeholders.findVariables(paragraph);
+        assertEquals(List.of("${name}", "${x}"), expressions(variables));
+        assertEquals(new StandardPlaceholder(((StandardPlaceholder) variables.get(0)).matcher(), "${name}", 0, 6),
+                variables.get(0));
+        assertEquals(3, ((StandardPlaceholder) variables.get(1)).run());
+        assertEquals(0, ((StandardPlaceholder) variables.get(1)).offset());
+
+        var processors = Placeholders.findProcessors(paragraph);
+        assertEquals(List.of("#{proc}"), expressions(processors));
+        assertEquals(2, ((StandardPlaceholder) processors.get(0)).run());
+        assertEquals(7, ((StandardPlaceholder) processors.get(0)).offset());
+    }
+}
@@ -11,13 +11,21 @@ import pro.verron.officestamper.preset.OfficeStamperConfigurations;
 
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.junit.jupiter.params.provider.Arguments.of;
 import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
@@ -59,7 +67,7 @@ class RepeatDocPartTest {
                 
                 
                 Always rendered:
-                /word/media/document_image_rId13.png:rId13:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:6120130
+                /word/media/document_image_rId11.png:rId11:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:6120130
                 
                 """;
 
@@ -81,10 +89,10 @@ class RepeatDocPartTest {
                 """
                         This is not repeated
                         This should be repeated : first doc part
-                        /word/media/document_image_rId12.png:rId12:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:5760720
+                        ❬/word/media/image1.png:rId4:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:5715000❘{noProof=true}❭
                         This should be repeated too
                         This should be repeated : second doc part
-                        /word/media/document_image_rId13.png:rId13:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:5760720
+                        ❬/word/media/image1.png:rId4:image/png:193.6kB:sha1=t8UNAmo7yJgZJk9g7pLLIb3AvCA=:cy=$d:5715000❘{noProof=true}❭
                         This should be repeated too
                         This is not repeated
                         """);
@@ -677,4 +685,63 @@ class RepeatDocPartTest {
                 """;
         assertEquals(expected, actual);
     }
+
+    @Test
+    void shouldStampItemsInParallelInTheirOrder() {
+        var names = IntStream.range(0, 500)
+                             .mapToObj(i -> "Name " + i)
+                             .toArray(String[]::new);
+        var pool = new ForkJoinPool(4);
+        var threads = ConcurrentHashMap.<Thread>newKeySet();
+        Executor executor = task -> pool.execute(() -> {
+            threads.add(Thread.currentThread());
+            task.run();
+        });
+        try {
+            var sequential = new TestDocxStamper<>(standard());
+            var parallel = new TestDocxStamper<>(standard().setRepeatDocPartExecutor(executor));
+            var template = "<1|>${name}<|1><1|repeatDocPart(names)>";
+            var expected = sequential.stampAndLoadAndExtract(makeResource(template), FACTORY.names(names));
+            var actual = parallel.stampAndLoadAndExtract(makeResource(template), FACTORY.names(names));
+            assertEquals(expected, actual);
+            assertEquals(String.join("\n", names) + "\n", actual);
+            assertFalse(threads.isEmpty());
+            assertFalse(threads.contains(Thread.currentThread()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldStampNestedItemsInParallel() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var context = FACTORY.schoolContext();
+            var sequential = new TestDocxStamper<>(standard());
+            var parallel = new TestDocxStamper<>(standard().setRepeatDocPartExecutor(pool));
+            var template = Path.of("RepeatDocPartNestingTest.docx");
+            var expected = sequential.stampAndLoadAndExtract(getResource(template), context);
+            var actual = parallel.stampAndLoadAndExtract(getResource(template), context);
+            assertEquals(expected, actual);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldStampNestedItemsOnAFixedThreadPool() {
+        var pool = Executors.newFixedThreadPool(2); // fewer threads than outer items
+        try {
+            var context = FACTORY.schoolContext();
+            var sequential = new TestDocxStamper<>(standard());
+            var parallel = new TestDocxStamper<>(standard().setRepeatDocPartExecutor(pool));
+            var template = Path.of("RepeatDocPartNestingTest.docx");
+            var expected = sequential.stampAndLoadAndExtract(getResource(template), context);
+            var actual = assertTimeoutPreemptively(Duration.ofMinutes(1),
+                    () -> parallel.stampAndLoadAndExtract(getResource(template), context));
+            assertEquals(expected, actual);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
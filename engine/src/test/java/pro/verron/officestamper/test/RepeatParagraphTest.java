@@ -1,5 +1,7 @@
 package pro.verron.officestamper.test;
 
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -226,4 +229,50 @@ class RepeatParagraphTest {
                 """;
         assertEquals(expected, actual);
     }
+
+    @DisplayName("Repeating paragraphs among other paragraphs only rewrites the repeated ranges")
+    @Test
+    void shouldRepeatParagraphsAmongOthers() {
+        repeatParagraphsInBody(20, 4, 3);
+    }
+
+    @DisplayName("Repeating paragraphs in a long body only rewrites the repeated ranges")
+    @Tag("benchmark")
+    @Test
+    void shouldRepeatParagraphsInLongBodies() {
+        var start = System.nanoTime();
+        repeatParagraphsInBody(5_000, 50, 200);
+        log.info("Repeated {} paragraphs in a body of {} paragraphs in {} ms",
+                50 * 200,
+                5_000,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void repeatParagraphsInBody(int bodyLength, int repeated, int items) {
+        record Name(String name) {}
+        record Names(List<Name> names) {}
+        var template = new StringBuilder();
+        var comment = "<%1$d|>${name}<|%1$d><%1$d|repeatParagraph(names)>\n";
+        for (int i = 0; i < bodyLength; i++) {
+            if (i % (bodyLength / repeated) == 0) template.append(comment.formatted(i / (bodyLength / repeated)));
+            else template.append("Line ")
+                         .append(i)
+                         .append('\n');
+        }
+        var names = IntStream.range(0, items)
+                             .mapToObj(i -> new Name("Name " + i))
+                             .toList();
+        var stamper = new TestDocxStamper<>(standard());
+
+        var actual = stamper.stampAndLoadAndExtract(makeResource(template.toString()), new Names(names));
+
+        var lines = actual.lines()
+                          .toList();
+        assertEquals(bodyLength - repeated + repeated * items, lines.size());
+        assertEquals("Name 0", lines.get(0));
+        assertEquals("Name " + (items - 1), lines.get(items - 1));
+        assertEquals("Line 1", lines.get(items));
+        assertEquals("Name 0", lines.get(items + bodyLength / repeated - 1));
+        assertEquals("Line " + (bodyLength - 1), lines.get(lines.size() - 1));
+    }
 }
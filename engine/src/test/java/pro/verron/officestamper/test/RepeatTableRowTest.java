@@ -1,5 +1,10 @@
 package pro.verron.officestamper.test;
 
+import org.docx4j.TraversalUtil;
+import org.docx4j.finders.ClassFinder;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.Text;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -8,16 +13,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pro.verron.officestamper.api.OfficeStamperConfiguration;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.params.provider.Arguments.of;
 import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standardWithPreprocessing;
 import static pro.verron.officestamper.test.ContextFactory.mapContextFactory;
 import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
 import static pro.verron.officestamper.test.TestUtils.getResource;
@@ -269,4 +279,107 @@ class RepeatTableRowTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void shouldStreamRows()
+            throws Docx4JException {
+        var document = WordprocessingMLPackage.load(getResource(Path.of("RepeatTableRowTest.docx")));
+        var finder = new ClassFinder(Text.class);
+        TraversalUtil.visit(document.getMainDocumentPart()
+                                    .getCommentsPart()
+                                    .getJaxbElement(), finder);
+        finder.results.stream()
+                      .map(Text.class::cast)
+                      .forEach(text -> text.setValue(text.getValue()
+                                                         .replace("repeatTableRow", "streamTableRow")));
+        var out = new ByteArrayOutputStream();
+        document.save(out);
+
+        var stamper = new TestDocxStamper<>(standard());
+        var template = new ByteArrayInputStream(out.toByteArray());
+        var context = FACTORY.roles("Homer Simpson",
+                "Dan Castellaneta",
+                "Marge Simpson",
+                "Julie Kavner",
+                "Bart Simpson",
+                "Nancy Cartwright");
+        var actual = stamper.stampAndLoadAndExtract(template, context);
+        var expected = """
+                Repeating Table Rows
+                List of Simpsons characters
+                |===
+                |Character name
+                |Voice Actor<cnfStyle=100000000000>
+                
+                |Homer Simpson
+                |Dan Castellaneta<cnfStyle=000000100000>
+                
+                |Marge Simpson
+                |Julie Kavner<cnfStyle=000000100000>
+                
+                |Bart Simpson
+                |Nancy Cartwright<cnfStyle=000000100000>
+                
+                
+                |===
+                
+                There are 3 characters in the above table.
+                """;
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldStreamRowsFromLazyIterables() {
+        record Name(String name) {}
+        record Names(Iterable<Name> names) {}
+        var count = 5_000;
+        var iterations = new AtomicInteger();
+        Iterable<Name> names = () -> {
+            iterations.incrementAndGet();
+            return IntStream.range(0, count)
+                            .mapToObj(i -> new Name("Name " + i))
+                            .iterator();
+        };
+        var stamper = new TestDocxStamper<>(standard());
+        var template = makeResource("""
+                |===
+                |<1|>${name}<|1><1|streamTableRow(names)>
+                |===
+                """);
+        var actual = stamper.stampAndLoadAndExtract(template, new Names(names));
+        var rows = actual.lines()
+                         .filter(line -> line.startsWith("|Name "))
+                         .toList();
+        assertEquals(count, rows.size());
+        assertEquals("|Name 0", rows.get(0));
+        assertEquals("|Name " + (count - 1), rows.get(count - 1));
+        assertEquals(1, iterations.get(), "the contexts are iterated once, on save");
+    }
+
+    @Test
+    void shouldStreamRowsFromSingleUseIterables() {
+        record Name(String name) {}
+        record Names(Iterable<Name> names) {}
+        var stream = Stream.of("Homer", "Marge", "Bart")
+                           .map(Name::new);
+        Iterable<Name> names = stream::iterator;
+        var stamper = new TestDocxStamper<>(standardWithPreprocessing());
+        var template = makeResource("""
+                |===
+                |<1|>${name}<|1><1|streamTableRow(names)>
+                |===
+                """);
+        var actual = stamper.stampAndLoadAndExtract(template, new Names(names));
+        var expected = """
+                |===
+                |Homer
+                
+                |Marge
+                
+                |Bart
+                
+                
+                |===
+                """;
+        assertEquals(expected, actual);
+    }
 }
@@ -0,0 +1,64 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.TextUtils;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.P;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.api.DocxPart;
+import pro.verron.officestamper.api.Paragraph;
+import pro.verron.officestamper.api.ParagraphPlaceholderReplacer;
+import pro.verron.officestamper.api.Placeholder;
+import pro.verron.officestamper.core.Stencil;
+import pro.verron.officestamper.core.TextualDocxPart;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.utils.WmlFactory.*;
+
+/// @author Joseph Verron
+class StencilTest {
+
+    @DisplayName("Stencils find the placeholders once and only fill them for each item")
+    @Test
+    void fillsKnownPlaceholders() {
+        var resolved = new ArrayList<String>();
+        var replacer = new ParagraphPlaceholderReplacer() {
+            @Override
+            public void resolvePlaceholders(
+                    DocxPart docxPart,
+                    Paragraph paragraph,
+                    List<Placeholder> placeholders,
+                    Object context
+            ) {
+                for (Placeholder placeholder : placeholders) {
+                    resolved.add(placeholder.expression());
+                    paragraph.replace(placeholder, newRun(context + "." + placeholder.content()));
+                }
+            }
+
+            @Override
+            public void resolveExpressionsForParagraph(Paragraph paragraph, Object context, WordprocessingMLPackage document) {
+                throw new AssertionError("Stencils should not scan paragraphs again");
+            }
+        };
+        var template = List.of(newParagraph("Hello ${name}, from ${place}"), newParagraph("Static"));
+        var source = new TextualDocxPart(newWord());
+
+        var stencil = Stencil.compile(source, template, BigInteger.ONE, replacer);
+        var filled = new ArrayList<P>();
+        for (String item : List.of("first", "second")) filled.addAll(stencil.fill(source, replacer, item));
+
+        assertEquals(List.of("Hello first.name, from first.place",
+                "Static",
+                "Hello second.name, from second.place",
+                "Static"), filled.stream()
+                                 .map(TextUtils::getText)
+                                 .toList());
+        assertEquals(List.of("${name}", "${place}", "${name}", "${place}"), resolved);
+        assertEquals("Hello ${name}, from ${place}", TextUtils.getText(template.get(0)));
+    }
+}
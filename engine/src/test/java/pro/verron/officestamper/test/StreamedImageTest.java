@@ -0,0 +1,83 @@
+package pro.verron.officestamper.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pro.verron.officestamper.preset.Image;
+import pro.verron.officestamper.utils.ThrowingSupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.preset.OfficeStamperConfigurations.standard;
+import static pro.verron.officestamper.test.ContextFactory.objectContextFactory;
+import static pro.verron.officestamper.test.TestUtils.makeResource;
+
+/// @author Joseph Verron
+class StreamedImageTest {
+
+    private static final Path MONALISA = Path.of("..", "test", "sources", "monalisa.jpg");
+
+    private static String stamp(Image image) {
+        var stamper = new TestDocxStamper<>(standard());
+        var template = makeResource("Before ${monalisa} after");
+        return stamper.stampAndLoadAndExtract(template, objectContextFactory().image(image));
+    }
+
+    @DisplayName("Images read from a file or a stream source are inserted like buffered images")
+    @Test
+    void sameAsBuffered()
+            throws IOException {
+        var expected = stamp(new Image(Files.readAllBytes(MONALISA)));
+        assertEquals(expected, stamp(new Image(MONALISA)));
+        assertEquals(expected, stamp(new Image(() -> Files.newInputStream(MONALISA))));
+    }
+
+    @DisplayName("Stream sourced images are only opened to be identified, probed once and saved")
+    @Test
+    void lazilyOpened()
+            throws IOException {
+        // trailing bytes make the content unique, so no other test has probed it yet
+        var bytes = Files.readAllBytes(MONALISA);
+        var content = Arrays.copyOf(bytes, bytes.length + Long.BYTES);
+        ByteBuffer.wrap(content, bytes.length, Long.BYTES)
+                  .putLong(System.nanoTime());
+        var opened = new AtomicInteger();
+        ThrowingSupplier<InputStream> source = () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        };
+        var image = new Image(source, 1000);
+        assertEquals(0, opened.get());
+        stamp(image);
+        assertEquals(3, opened.get());
+        stamp(new Image(source, 1000));
+        assertEquals(5, opened.get());
+    }
+
+    @DisplayName("Stream sourced images are copied into the stamped document without being read whole")
+    @Test
+    void notMaterialized()
+            throws IOException {
+        var expected = stamp(new Image(Files.readAllBytes(MONALISA)));
+        ThrowingSupplier<InputStream> source = () -> new FilterInputStream(Files.newInputStream(MONALISA)) {
+            @Override
+            public byte[] readAllBytes() {
+                throw new AssertionError("The image was read whole");
+            }
+
+            @Override
+            public byte[] readNBytes(int len) {
+                throw new AssertionError("The image was read whole");
+            }
+        };
+        assertEquals(expected, stamp(new Image(source)));
+    }
+}
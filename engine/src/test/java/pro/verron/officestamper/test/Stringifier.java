@@ -146,17 +146,21 @@ public class Stringifier {
      * @since 1.6.6
      */
     private String stringify(CTBlip blip) {
-        var image = document().getParts()
-                              .getParts()
-                              .entrySet()
-                              .stream()
-                              .filter(e -> e.getKey()
-                                            .getName()
-                                            .contains(blip.getEmbed()))
-                              .map(Entry::getValue)
-                              .findFirst()
-                              .map(BinaryPartAbstractImage.class::cast)
-                              .orElseThrow();
+        var image = ofNullable(document().getMainDocumentPart()
+                                         .getRelationshipsPart()
+                                         .getPart(blip.getEmbed()))
+                .filter(BinaryPartAbstractImage.class::isInstance)
+                .or(() -> document().getParts()
+                                    .getParts()
+                                    .entrySet()
+                                    .stream()
+                                    .filter(e -> e.getKey()
+                                                  .getName()
+                                                  .contains(blip.getEmbed()))
+                                    .map(Entry::getValue)
+                                    .findFirst())
+                .map(BinaryPartAbstractImage.class::cast)
+                .orElseThrow();
         byte[] imageBytes = image.getBytes();
         return "%s:%s:%s:%s:sha1=%s:cy=$d".formatted(image.getPartName(),
                 blip.getEmbed(),
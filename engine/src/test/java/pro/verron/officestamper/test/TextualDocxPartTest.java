@@ -0,0 +1,113 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.TraversalUtil;
+import org.docx4j.finders.ClassFinder;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.api.Paragraph;
+import pro.verron.officestamper.core.DocumentUtil;
+import pro.verron.officestamper.core.StandardParagraph;
+import pro.verron.officestamper.core.TextualDocxPart;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+import static pro.verron.officestamper.utils.WmlFactory.newParagraph;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class TextualDocxPartTest {
+
+    @DisplayName("The indexed paragraphs and runs of a part are the ones found by traversing it")
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "RepeatTableRowTest.docx",
+            "RepeatDocPartNestingTest.docx",
+            "ExpressionReplacementInTextBoxesTest.docx",
+            "ConditionalDisplayOfTablesTest.docx",
+            "form-controls.docx"
+    })
+    void sameAsTraversal(String name)
+            throws Docx4JException {
+        var document = WordprocessingMLPackage.load(getResource(Path.of(name)));
+        var part = new TextualDocxPart(document);
+
+        var paragraphs = find(document, P.class);
+        var sdtParagraphs = find(document, SdtRun.class).stream()
+                                                         .map(SdtRun.class::cast)
+                                                         .map(SdtRun::getSdtContent)
+                                                         .filter(CTSdtContentRun.class::isInstance)
+                                                         .map(CTSdtContentRun.class::cast)
+                                                         .map(content -> StandardParagraph.from(part, content));
+        assertEquals(Stream.concat(paragraphs.stream()
+                                             .map(p -> StandardParagraph.from(part, (P) p)), sdtParagraphs)
+                           .map(Paragraph::asString)
+                           .toList(),
+                part.streamParagraphs()
+                    .map(Paragraph::asString)
+                    .toList());
+        assertEquals(paragraphs.stream()
+                               .map(P.class::cast)
+                               .map(P::getContent)
+                               .flatMap(Collection::stream)
+                               .filter(R.class::isInstance)
+                               .toList(),
+                part.streamRun()
+                    .toList());
+    }
+
+    @DisplayName("The paragraphs of a part are found again only once the part is invalidated")
+    @Test
+    void indexedUntilInvalidated() {
+        var document = newWord();
+        var content = document.getMainDocumentPart()
+                              .getContent();
+        content.add(newParagraph("first"));
+        var part = new TextualDocxPart(document);
+
+        assertEquals(1,
+                part.streamParagraphs()
+                    .count());
+        content.add(newParagraph("second"));
+        assertEquals(1,
+                part.streamParagraphs()
+                    .count());
+        part.invalidate();
+        assertEquals(2,
+                part.streamParagraphs()
+                    .count());
+    }
+
+    @DisplayName("Streaming the elements of a part always traverses its current content")
+    @Test
+    void streamObjectElementsIsNotCached() {
+        var document = newWord();
+        var content = document.getMainDocumentPart()
+                              .getContent();
+        content.add(newParagraph("first"));
+        var part = new TextualDocxPart(document);
+
+        assertEquals(1,
+                DocumentUtil.streamObjectElements(part, P.class)
+                            .count());
+        content.add(newParagraph("second"));
+        assertEquals(2,
+                DocumentUtil.streamObjectElements(part, P.class)
+                            .count());
+    }
+
+    private static List<Object> find(WordprocessingMLPackage document, Class<?> elementClass) {
+        var finder = new ClassFinder(elementClass);
+        TraversalUtil.visit((ContentAccessor) document.getMainDocumentPart()::getContent, finder);
+        return finder.results;
+    }
+}
@@ -0,0 +1,94 @@
+package pro.verron.officestamper.test;
+
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.openpackaging.parts.JaxbXmlPart;
+import org.docx4j.utils.TraversalUtilVisitor;
+import org.docx4j.wml.P;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pro.verron.officestamper.core.VisitingProcessor;
+import pro.verron.officestamper.preset.Postprocessors;
+import pro.verron.officestamper.preset.Preprocessors;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+import static pro.verron.officestamper.utils.WmlFactory.newParagraph;
+import static pro.verron.officestamper.utils.WmlFactory.newWord;
+
+/// @author Joseph Verron
+class VisitingProcessorTest {
+
+    @DisplayName("Processors sharing a single traversal change the document as when each one traverses it")
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "footnotes.docx",
+            "endnotes.docx",
+            "ExpressionReplacementWithFormattingTest.docx",
+            "ExpressionReplacementInHeaderAndFooterTest.docx",
+            "MultiSectionTest.docx"
+    })
+    void sameAsSeparateTraversals(String name)
+            throws Docx4JException {
+        var processors = List.of((VisitingProcessor) Preprocessors.removeLanguageProof(),
+                (VisitingProcessor) Preprocessors.removeLanguageInfo(),
+                (VisitingProcessor) Preprocessors.mergeSimilarRuns(),
+                (VisitingProcessor) Postprocessors.removeOrphanedFootnotes(),
+                (VisitingProcessor) Postprocessors.removeOrphanedEndnotes());
+
+        var separate = WordprocessingMLPackage.load(getResource(Path.of(name)));
+        for (VisitingProcessor processor : processors) VisitingProcessor.processAll(separate, List.of(processor));
+        var shared = WordprocessingMLPackage.load(getResource(Path.of(name)));
+        VisitingProcessor.processAll(shared, processors);
+
+        assertEquals(marshal(separate), marshal(shared));
+    }
+
+    @DisplayName("Processors sharing a traversal visit the document before applying their changes, in order")
+    @Test
+    void visitsBeforeChanges() {
+        var document = newWord();
+        var content = document.getMainDocumentPart()
+                              .getContent();
+        content.add(newParagraph("first"));
+        content.add(newParagraph("second"));
+        var events = new ArrayList<String>();
+        VisitingProcessor clear = doc -> VisitingProcessor.Visit.of(counter("clear", events), () -> {
+            events.add("clear changes");
+            content.clear();
+        });
+        VisitingProcessor count = doc -> VisitingProcessor.Visit.of(counter("count", events),
+                () -> events.add("count changes"));
+
+        VisitingProcessor.processAll(document, List.of(clear, count));
+
+        assertEquals(List.of("clear", "count", "clear", "count", "clear changes", "count changes"), events);
+    }
+
+    private static TraversalUtilVisitor<P> counter(String name, List<String> events) {
+        return new TraversalUtilVisitor<>() {
+            @Override
+            public void apply(P element) {
+                events.add(name);
+            }
+        };
+    }
+
+    private static List<String> marshal(WordprocessingMLPackage document) {
+        var mainDocumentPart = document.getMainDocumentPart();
+        return Stream.of(mainDocumentPart, mainDocumentPart.getFootnotesPart(), mainDocumentPart.getEndNotesPart())
+                     .filter(Objects::nonNull)
+                     .map(JaxbXmlPart::getJaxbElement)
+                     .map(XmlUtils::marshaltoString)
+                     .toList();
+    }
+}
@@ -0,0 +1,89 @@
+package pro.verron.officestamper.test;
+
+import jakarta.xml.bind.JAXBElement;
+import org.docx4j.TraversalUtil;
+import org.docx4j.XmlUtils;
+import org.docx4j.openpackaging.exceptions.Docx4JException;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+import org.docx4j.wml.ContentAccessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.jvnet.jaxb2_commons.ppp.Child;
+import pro.verron.officestamper.utils.WmlCloner;
+
+import javax.xml.namespace.QName;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pro.verron.officestamper.test.TestUtils.getResource;
+
+/// @author Joseph Verron
+class WmlClonerTest {
+
+    @DisplayName("Copies are made without XML, the same as copies through XML, with the same content lists, sharing no element nor parent with the original")
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "RepeatTableRowTest.docx",
+            "RepeatDocPartTest.docx",
+            "RepeatDocPartWithImageTest.docx",
+            "ChangingPageLayoutInRepeatParagraphTest.docx",
+            "ExpressionReplacementInTextBoxesTest.docx",
+            "RepeatDocPartWithImagesInSourceTest.docx",
+            "form-controls.docx"
+    })
+    void sameAsXmlCopy(String name)
+            throws Docx4JException {
+        var document = WordprocessingMLPackage.load(getResource(Path.of(name)));
+        var content = document.getMainDocumentPart()
+                              .getContent();
+        for (Object element : content) {
+            var copy = WmlCloner.structuralCopy(element)
+                                .orElseThrow(() -> new AssertionError("Copied through XML: " + element));
+            assertNotSame(element, copy);
+            assertEquals(XmlUtils.marshaltoString(XmlUtils.deepCopy(element)), XmlUtils.marshaltoString(copy));
+            assertParentsInside(element, copy);
+            if (element instanceof ContentAccessor accessor)
+                assertSame(accessor.getContent()
+                                   .getClass(),
+                        ((ContentAccessor) copy).getContent()
+                                                .getClass());
+        }
+    }
+
+    @DisplayName("Values of unknown types are not copied structurally, they are left to the copy through XML")
+    @Test
+    void unknownValues() {
+        var unknown = new JAXBElement<>(new QName("urn:test", "unknown"), Object.class, new Object());
+
+        assertTrue(WmlCloner.structuralCopy(unknown)
+                            .isEmpty());
+    }
+
+    private static void assertParentsInside(Object original, Object copy) {
+        var originals = Collections.newSetFromMap(new IdentityHashMap<>());
+        visitChildren(original, child -> {
+            originals.add(child);
+            originals.add(child.getParent());
+        });
+        visitChildren(copy, child -> {
+            assertFalse(originals.contains(child), "Shared with the original: " + child);
+            assertFalse(originals.contains(child.getParent()), "Parent in the original: " + child);
+        });
+    }
+
+    private static void visitChildren(Object root, Consumer<Child> consumer) {
+        TraversalUtil.visit(root, new TraversalUtil.CallbackImpl() {
+            @Override
+            public List<Object> apply(Object o) {
+                if (o instanceof Child child) consumer.accept(child);
+                return null;
+            }
+        });
+    }
+}